@@ -0,0 +1,222 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.ManageOrganization;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.ManageUser;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.MembershipCheck;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.curity.identityserver.sdk.attribute.Attribute;
+import se.curity.identityserver.sdk.attribute.AuthenticationAttributes;
+import se.curity.identityserver.sdk.authentication.AuthenticationResult;
+import se.curity.identityserver.sdk.service.SessionManager;
+import se.curity.identityserver.sdk.web.Response;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static io.curity.identityserver.plugin.github.authentication.StandIns.CannedResponse;
+
+/**
+ * Measures the callback of a GitHub login, both end-to-end and phase by phase.
+ *
+ * <p>GitHub is replaced by canned responses, so the numbers are the cost of the plugin itself. Run with
+ * {@code -prof gc} to get the bytes allocated per operation ({@code gc.alloc.rate.norm}); the sample-time mode
+ * reports p50 and p99 latencies.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CallbackRequestHandlerBenchmark
+{
+    private static final String ORGANIZATION_NAME = "curityio";
+    private static final String STATE = "0b2ee3e5-0cd5-4c5c-a5c6-4a1a4c86f1f4";
+
+    /**
+     * The shape of the user info response; {@code full} is a typical /user response with all the API URLs and
+     * private profile fields, {@code minimal} only has the fields that the handler reads explicitly.
+     */
+    @Param({"full", "minimal"})
+    public String userInfo;
+
+    /**
+     * How the authenticator is configured to check the user's organization membership, if at all.
+     */
+    @Param({"NONE", "MEMBERS", "AUTHENTICATED_USER"})
+    public String organizationMembership;
+
+    /**
+     * Whether the authenticator asks for the email addresses of the user, which are then fetched along with the user
+     * info.
+     */
+    @Param({"false", "true"})
+    public boolean emailAccess;
+
+    private CallbackRequestHandler _handler;
+    private SessionManager _sessionManager;
+    private CallbackGetRequestModel _requestModel;
+    private Response _response;
+    private Map<String, Object> _tokenResponseData;
+    private Map<String, Object> _userInfoResponseData;
+    private String _accessToken;
+    private OrganizationMembership _organizationMembership;
+    private String _verifiedEmail;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Map<String, CannedResponse> responses = new HashMap<>();
+
+        responses.put("/login/oauth/access_token", new CannedResponse(200, Fixtures.resource("token.json")));
+        responses.put("/user", new CannedResponse(200, Fixtures.resource("user-" + userInfo + ".json")));
+        responses.put("/orgs/" + ORGANIZATION_NAME + "/members/octocat", new CannedResponse(204, ""));
+        responses.put("/user/memberships/orgs/" + ORGANIZATION_NAME,
+                new CannedResponse(200, Fixtures.resource("membership.json")));
+        responses.put("/user/emails", new CannedResponse(200, Fixtures.resource("emails.json")));
+
+        _sessionManager = StandIns.sessionManager();
+
+        Map<String, Object> configuration = Fixtures.services(_sessionManager, responses);
+
+        if (!"NONE".equals(organizationMembership))
+        {
+            Map<String, Object> manageOrganization = new HashMap<>();
+
+            manageOrganization.put("getOrganizationName", Optional.of(ORGANIZATION_NAME));
+            manageOrganization.put("getAccess", GitHubAuthenticatorPluginConfig.Access.READ);
+            manageOrganization.put("getMembershipCheck", MembershipCheck.valueOf(organizationMembership));
+            configuration.put("getManageOrganization", Optional.of(
+                    StandIns.settings(ManageOrganization.class, manageOrganization)));
+        }
+
+        if (emailAccess)
+        {
+            configuration.put("getManageUser", Optional.of(StandIns.settings(ManageUser.class,
+                    Collections.singletonMap("isEmailAccess", true))));
+        }
+
+        Map<String, String> parameters = new HashMap<>();
+
+        parameters.put("code", "a5a2d2f4c0d1e6b3a7c9");
+        parameters.put("state", STATE);
+
+        _handler = new CallbackRequestHandler(StandIns.configuration(configuration));
+        _requestModel = _handler.preProcess(StandIns.request(Collections.unmodifiableMap(parameters)),
+                StandIns.response());
+        _response = StandIns.response();
+        _tokenResponseData = _handler.redeemCodeForTokens(_requestModel);
+        _accessToken = _tokenResponseData.get("access_token").toString();
+        _userInfoResponseData = _handler.getUserInfo(_accessToken, null, Fixtures.deadline());
+        _organizationMembership = "AUTHENTICATED_USER".equals(organizationMembership)
+                ? _handler.getAuthenticatedUserMembership(ORGANIZATION_NAME, _accessToken, null, Fixtures.deadline())
+                : null;
+        _verifiedEmail = emailAccess
+                ? _handler.getPrimaryEmail(_accessToken, null, Fixtures.deadline()).getAddress()
+                : null;
+    }
+
+    @Benchmark
+    public Optional<AuthenticationResult> callback()
+    {
+        startLogin();
+
+        return _handler.get(_requestModel, _response);
+    }
+
+    @Benchmark
+    public void validateState()
+    {
+        startLogin();
+        _handler.validateState(STATE);
+    }
+
+    @Benchmark
+    public Map<String, Object> redeemCodeForTokens()
+    {
+        return _handler.redeemCodeForTokens(_requestModel);
+    }
+
+    @Benchmark
+    public ScopeSet checkGrantedScopes()
+    {
+        return _handler.checkGrantedScopes(_tokenResponseData);
+    }
+
+    @Benchmark
+    public Map<String, Object> getUserInfo()
+    {
+        return _handler.getUserInfo(_accessToken, null, Fixtures.deadline());
+    }
+
+    @Benchmark
+    public boolean checkUserOrganizationMembership()
+    {
+        return _handler.checkUserOrganizationMembership((String) _userInfoResponseData.get("login"),
+                _userInfoResponseData.get("id").toString(), _accessToken, Fixtures.deadline());
+    }
+
+    @Benchmark
+    public OrganizationMembership getAuthenticatedUserMembership()
+    {
+        // There is no organization to ask GitHub about unless the membership is checked
+        if ("NONE".equals(organizationMembership))
+        {
+            return null;
+        }
+
+        return _handler.getAuthenticatedUserMembership(ORGANIZATION_NAME, _accessToken, null, Fixtures.deadline());
+    }
+
+    @Benchmark
+    public PrimaryEmail getPrimaryEmail()
+    {
+        return _handler.getPrimaryEmail(_accessToken, null, Fixtures.deadline());
+    }
+
+    @Benchmark
+    public AuthenticationAttributes createAuthenticationAttributes()
+    {
+        return _handler.createAuthenticationAttributes(_tokenResponseData, _userInfoResponseData, ScopeSet.EMPTY,
+                _organizationMembership, _verifiedEmail);
+    }
+
+    /**
+     * Puts the state in the session like the redirect to GitHub does, since every callback uses it up.
+     */
+    private void startLogin()
+    {
+        _sessionManager.put(Attribute.of("state", STATE));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import se.curity.identityserver.sdk.service.Json;
+import se.curity.identityserver.sdk.service.SessionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.curity.identityserver.plugin.github.authentication.StandIns.CannedResponse;
+import static io.curity.identityserver.plugin.github.authentication.StandIns.GitHub;
+
+/**
+ * What the benchmarks need on top of the stand-ins of the tests: real JSON, the response fixtures and deadlines.
+ */
+final class Fixtures
+{
+    private static final ObjectMapper _objectMapper = new ObjectMapper();
+
+    private Fixtures()
+    {
+    }
+
+    /**
+     * @return the services of a configuration, with GitHub answering from the given responses without remembering
+     * the requests
+     */
+    static Map<String, Object> services(SessionManager sessionManager, Map<String, CannedResponse> responsesByPath)
+    {
+        GitHub gitHub = new GitHub(false);
+
+        responsesByPath.forEach(gitHub::answer);
+
+        Map<String, Object> services = StandIns.services(gitHub);
+
+        services.put("getJson", json());
+        services.put("getSessionManager", sessionManager);
+
+        return services;
+    }
+
+    static Json json()
+    {
+        return StandIns.proxy(Json.class, (method, args) ->
+        {
+            try
+            {
+                if ("fromJson".equals(method.getName()))
+                {
+                    return _objectMapper.readValue((String) args[0], new TypeReference<Map<String, Object>>()
+                    {
+                    });
+                }
+                else if ("toJson".equals(method.getName()))
+                {
+                    return _objectMapper.writeValueAsString(args[0]);
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    /**
+     * @return the deadline of a login that starts now, as the handler would get it with the default time budget
+     */
+    static long deadline()
+    {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    }
+
+    static String resource(String name)
+    {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/responses/" + name))
+        {
+            if (in == null)
+            {
+                throw new IllegalArgumentException("No such response fixture: " + name);
+            }
+
+            byte[] buffer = new byte[8192];
+            StringBuilder result = new StringBuilder();
+            int read;
+
+            while ((read = in.read(buffer)) != -1)
+            {
+                result.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+            }
+
+            return result.toString();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
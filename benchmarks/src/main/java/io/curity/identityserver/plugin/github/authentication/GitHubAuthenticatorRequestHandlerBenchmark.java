@@ -0,0 +1,237 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.Access;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.ManageOrganization;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.ManageRepo;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.ManageUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.curity.identityserver.sdk.service.ExceptionFactory;
+import se.curity.identityserver.sdk.service.SessionManager;
+import se.curity.identityserver.sdk.service.authentication.AuthenticatorInformationProvider;
+import se.curity.identityserver.sdk.web.Request;
+import se.curity.identityserver.sdk.web.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the redirect to GitHub that starts a login.
+ *
+ * <p>Each invocation uses the next of all meaningful scope configurations, i.e., every combination of the
+ * organization access, the repository scopes, the user scopes, the access level of public keys, repository hooks
+ * and GPG keys, and the remaining boolean scopes. Run with {@code -prof gc} to get the bytes allocated per
+ * redirect.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GitHubAuthenticatorRequestHandlerBenchmark
+{
+    private static final String STATE = "0b2ee3e5-0cd5-4c5c-a5c6-4a1a4c86f1f4";
+    private static final String REDIRECT_URI = StandIns.AUTHENTICATION_URI + "/callback";
+
+    private GitHubAuthenticatorRequestHandler[] _handlers;
+    private GitHubAuthenticatorPluginConfig[] _configurations;
+    private ScopeSet[] _scopes;
+    private AuthenticatorInformationProvider _authenticatorInformationProvider;
+    private ExceptionFactory _exceptionFactory;
+    private Request _request;
+    private Response _response;
+    private int _next;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        SessionManager sessionManager = StandIns.sessionManager();
+        List<Map<String, Object>> permutations = scopePermutations();
+
+        _handlers = new GitHubAuthenticatorRequestHandler[permutations.size()];
+        _configurations = new GitHubAuthenticatorPluginConfig[permutations.size()];
+        _scopes = new ScopeSet[permutations.size()];
+
+        for (int i = 0; i < _handlers.length; i++)
+        {
+            Map<String, Object> configuration = Fixtures.services(sessionManager, Collections.emptyMap());
+
+            configuration.putAll(permutations.get(i));
+            configuration.put("id", "github" + i);
+
+            _configurations[i] = StandIns.configuration(configuration);
+            _handlers[i] = new GitHubAuthenticatorRequestHandler(_configurations[i]);
+            _scopes[i] = ScopeSet.requiredBy(_configurations[i]);
+        }
+
+        _authenticatorInformationProvider = StandIns.authenticatorInformationProvider();
+        _exceptionFactory = StandIns.exceptionFactory();
+        _request = StandIns.request(Collections.emptyMap());
+        _response = StandIns.response();
+    }
+
+    private int next()
+    {
+        int next = _next;
+
+        _next = next + 1 == _handlers.length ? 0 : next + 1;
+
+        return next;
+    }
+
+    @Benchmark
+    public Object redirect()
+    {
+        try
+        {
+            return _handlers[next()].get(_request, _response);
+        }
+        catch (StandIns.StandInException e)
+        {
+            // The handler always ends by throwing the redirect
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ScopeSet compileScopes()
+    {
+        return ScopeSet.compile(_configurations[next()]);
+    }
+
+    @Benchmark
+    public ScopeSet requiredScopes()
+    {
+        return ScopeSet.requiredBy(_configurations[next()]);
+    }
+
+    @Benchmark
+    public String createRedirectUri()
+    {
+        return RedirectUriUtil.createRedirectUri(_authenticatorInformationProvider, _exceptionFactory);
+    }
+
+    @Benchmark
+    public AuthorizationRequestTemplates.Template compileAuthorizationRequestTemplate()
+    {
+        int next = next();
+
+        return new AuthorizationRequestTemplates.Template(_configurations[next].getClientId(), REDIRECT_URI,
+                _scopes[next]);
+    }
+
+    @Benchmark
+    public String createAuthorizationRequestUrl()
+    {
+        return AuthorizationRequestTemplates.get(_configurations[next()], _authenticatorInformationProvider,
+                _exceptionFactory).getAuthorizationRequestUrl(STATE);
+    }
+
+    static List<Map<String, Object>> scopePermutations()
+    {
+        List<Optional<ManageOrganization>> organizations = new ArrayList<>();
+        List<Optional<ManageRepo>> repos = new ArrayList<>();
+        List<Optional<ManageUser>> users = new ArrayList<>();
+
+        organizations.add(Optional.empty());
+
+        for (Access access : Access.values())
+        {
+            organizations.add(Optional.of(StandIns.settings(ManageOrganization.class,
+                    Collections.singletonMap("getAccess", access))));
+        }
+
+        repos.add(Optional.empty());
+
+        for (int flags = 0; flags < 16; flags++)
+        {
+            Map<String, Object> repo = new HashMap<>();
+
+            repo.put("isReadWriteCommitStatus", (flags & 1) != 0);
+            repo.put("isDeploymentStatusesAccess", (flags & 2) != 0);
+            repo.put("isPublicReposAccess", (flags & 4) != 0);
+            repo.put("isInviteAccess", (flags & 8) != 0);
+            repos.add(Optional.of(StandIns.settings(ManageRepo.class, repo)));
+        }
+
+        users.add(Optional.empty());
+
+        for (int flags = 0; flags < 4; flags++)
+        {
+            Map<String, Object> user = new HashMap<>();
+
+            user.put("isEmailAccess", (flags & 1) != 0);
+            user.put("isFollowAccess", (flags & 2) != 0);
+            users.add(Optional.of(StandIns.settings(ManageUser.class, user)));
+        }
+
+        List<Map<String, Object>> permutations = new ArrayList<>();
+
+        for (Optional<ManageOrganization> organization : organizations)
+        {
+            for (Optional<ManageRepo> repo : repos)
+            {
+                for (Optional<ManageUser> user : users)
+                {
+                    for (Access access : Access.values())
+                    {
+                        for (boolean enabled : new boolean[]{false, true})
+                        {
+                            Map<String, Object> permutation = new HashMap<>();
+
+                            permutation.put("getManageOrganization", organization);
+                            permutation.put("getManageRepo", repo);
+                            permutation.put("getManageUser", user);
+                            permutation.put("getPublicKeysAccess", access);
+                            permutation.put("getRepoHooksAccess", access);
+                            permutation.put("getGpgKeysAccess", access);
+                            permutation.put("isOrganizationHooks", enabled);
+                            permutation.put("isGistsAccess", enabled);
+                            permutation.put("isNotificationsAccess", enabled);
+                            permutation.put("isDeleteRepo", enabled);
+                            permutations.add(permutation);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Shuffle deterministically so that the branches taken differ from one invocation to the next
+        Collections.shuffle(permutations, new Random(42));
+
+        return permutations;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.client.GitHubCalls;
+import io.curity.identityserver.plugin.github.client.GitHubEndpoint;
+import io.curity.identityserver.plugin.github.client.GitHubResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.curity.identityserver.plugin.github.authentication.StandIns.CannedResponse;
+
+/**
+ * Measures what making a call to GitHub costs on top of the call itself, i.e., the bookkeeping of the rate limits,
+ * the concurrency limit and the circuit breaker, and how fast a call is rejected while the circuit breaker is open.
+ * {@code executeHedged} also includes handing the call over to another thread, as is done when hedging requests.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GitHubCallsBenchmark
+{
+    private static final String USER_ID = "583231";
+
+    /**
+     * The state of the circuit breaker of the endpoint, or {@code off} if circuit breakers are turned off.
+     */
+    @Param({"off", "closed", "open"})
+    public String circuitBreaker;
+
+    private GitHubCalls _calls;
+    private GitHubResponse _response;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Map<String, Object> configuration = Fixtures.services(StandIns.sessionManager(), Collections.emptyMap());
+
+        configuration.put("id", "github-calls-" + circuitBreaker);
+        configuration.put("getRateLimitReserve", 100);
+        configuration.put("getMaxConcurrentCalls", 64);
+        configuration.put("isHedgeUserInfoRequests", true);
+        configuration.put("getHedgePercentile", 95);
+        configuration.put("getHedgeBudget", 5);
+
+        if ("off".equals(circuitBreaker))
+        {
+            configuration.put("getCircuitBreakerWindowSize", 0);
+        }
+        else
+        {
+            configuration.put("getCircuitBreakerWindowSize", 20);
+            configuration.put("getCircuitBreakerMinimumCalls", 1);
+            configuration.put("getCircuitBreakerFailureRateThreshold", 50);
+            configuration.put("getCircuitBreakerSlowCallDuration", 3000);
+            configuration.put("getCircuitBreakerSlowCallRateThreshold", 80);
+            configuration.put("getCircuitBreakerOpenDuration", 3600);
+            configuration.put("getCircuitBreakerProbeCalls", 3);
+        }
+
+        _calls = GitHubCalls.of(StandIns.configuration(configuration));
+        _response = GitHubResponse.of(new CannedResponse(200, Fixtures.resource("user-minimal.json"))
+                .toHttpResponse(Collections.emptyMap()));
+
+        // Make enough calls for the hedging delay to be known
+        for (int i = 0; i < 64; i++)
+        {
+            _calls.executeHedged(GitHubEndpoint.USER, USER_ID, Fixtures.deadline(), () -> _response);
+        }
+
+        if ("open".equals(circuitBreaker))
+        {
+            _calls.execute(GitHubEndpoint.USER, USER_ID, () -> GitHubResponse.of(new CannedResponse(503, "")
+                    .toHttpResponse(Collections.emptyMap())));
+        }
+    }
+
+    @Benchmark
+    public Object execute()
+    {
+        try
+        {
+            return _calls.execute(GitHubEndpoint.USER, USER_ID, () -> _response);
+        }
+        catch (StandIns.StandInException e)
+        {
+            return e;
+        }
+    }
+
+    /**
+     * Makes a call that is hedged if it takes longer than most, which it never does here, so this measures the cost
+     * of handing the call over to another thread to be able to hedge it.
+     */
+    @Benchmark
+    public Object executeHedged()
+    {
+        try
+        {
+            return _calls.executeHedged(GitHubEndpoint.USER, USER_ID, Fixtures.deadline(), () -> _response);
+        }
+        catch (StandIns.StandInException e)
+        {
+            return e;
+        }
+    }
+}
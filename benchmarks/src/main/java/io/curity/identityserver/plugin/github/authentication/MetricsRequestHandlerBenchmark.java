@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.metrics.PrometheusExposition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.curity.identityserver.sdk.attribute.Attribute;
+import se.curity.identityserver.sdk.authentication.AuthenticationResult;
+import se.curity.identityserver.sdk.service.SessionManager;
+import se.curity.identityserver.sdk.web.Request;
+import se.curity.identityserver.sdk.web.Response;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static io.curity.identityserver.plugin.github.authentication.StandIns.CannedResponse;
+
+/**
+ * Measures a scrape of the metrics endpoint after a number of logins, i.e., rendering all metrics in the text format
+ * of Prometheus.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsRequestHandlerBenchmark
+{
+    private static final String STATE = "0b2ee3e5-0cd5-4c5c-a5c6-4a1a4c86f1f4";
+
+    private MetricsRequestHandler _handler;
+    private Request _request;
+    private Response _response;
+    private PrometheusExposition _exposition;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Map<String, CannedResponse> responses = new HashMap<>();
+
+        responses.put("/login/oauth/access_token", new CannedResponse(200, Fixtures.resource("token.json")));
+        responses.put("/user", new CannedResponse(200, Fixtures.resource("user-full.json")));
+
+        SessionManager sessionManager = StandIns.sessionManager();
+        Map<String, Object> configuration = Fixtures.services(sessionManager, responses);
+
+        configuration.put("id", "github-metrics");
+        configuration.put("isMetricsEndpointEnabled", true);
+
+        // One configuration for all handlers, so that they share the metrics like the handlers of an authenticator do
+        GitHubAuthenticatorPluginConfig config = StandIns.configuration(configuration);
+
+        Map<String, String> parameters = new HashMap<>();
+
+        parameters.put("code", "a5a2d2f4c0d1e6b3a7c9");
+        parameters.put("state", STATE);
+
+        CallbackRequestHandler callbackHandler = new CallbackRequestHandler(config);
+        CallbackGetRequestModel callback = callbackHandler.preProcess(
+                StandIns.request(Collections.unmodifiableMap(parameters)), StandIns.response());
+
+        // Fill the histograms and counters like a busy authenticator would
+        for (int i = 0; i < 1000; i++)
+        {
+            // Every callback uses up the state, like the one of a real login does
+            sessionManager.put(Attribute.of("state", STATE));
+
+            Optional<AuthenticationResult> result = callbackHandler.get(callback, StandIns.response());
+
+            if (!result.isPresent())
+            {
+                throw new IllegalStateException("Login failed");
+            }
+        }
+
+        _handler = new MetricsRequestHandler(config);
+        _request = _handler.preProcess(StandIns.request(Collections.emptyMap()), StandIns.response());
+        _response = StandIns.response();
+        _exposition = PrometheusExposition.of(config);
+    }
+
+    @Benchmark
+    public Optional<AuthenticationResult> scrape()
+    {
+        return _handler.get(_request, _response);
+    }
+
+    @Benchmark
+    public String render()
+    {
+        return _exposition.render();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.client.JsonFields;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.curity.identityserver.sdk.service.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the responses of the token and user info endpoints of GitHub with {@link JsonFields}, which only
+ * reads the fields that the handler uses, against decoding them to a string and parsing them completely with the
+ * {@link Json} service.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseParsingBenchmark
+{
+    /**
+     * The response that is read.
+     */
+    @Param({"token", "user-full", "user-minimal"})
+    public String response;
+
+    private byte[] _body;
+    private JsonFields _fields;
+    private Json _json;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        _body = Fixtures.resource(response + ".json").getBytes(StandardCharsets.UTF_8);
+        _fields = "token".equals(response)
+                ? CallbackRequestHandler.TOKEN_RESPONSE_FIELDS
+                : UserInfoProjection.compile(StandIns.configuration(Collections.emptyMap())).getFields();
+        _json = Fixtures.json();
+    }
+
+    @Benchmark
+    public Map<String, Object> jsonFields()
+    {
+        return _fields.read(_body);
+    }
+
+    @Benchmark
+    public Map<String, Object> json()
+    {
+        return _json.fromJson(new String(_body, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.StateMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what signing the state costs instead of keeping it in the session: creating a signed state, as the
+ * redirect does, and creating one and verifying it, as the callback does.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SignedStateBenchmark
+{
+    private static final String SESSION_ID = "b6a0e0a3-5d7c-4d1e-9f3a-2c1b8e7d6f54";
+
+    private SignedState _signedState;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Map<String, Object> configuration = Fixtures.services(StandIns.sessionManager(), Collections.emptyMap());
+
+        configuration.put("getStateMode", StateMode.SIGNED);
+        configuration.put("getSignedStateTimeToLive", 600);
+        configuration.put("getSignedStateReplayCacheSize", 50000);
+
+        _signedState = SignedState.of(StandIns.configuration(configuration));
+    }
+
+    @Benchmark
+    public String create()
+    {
+        return _signedState.create(SESSION_ID);
+    }
+
+    @Benchmark
+    public boolean createAndVerify()
+    {
+        return _signedState.verify(_signedState.create(SESSION_ID), SESSION_ID);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures generating the state of a login with {@link StateGenerator} against {@link UUID#randomUUID()}, which was
+ * used before and draws from a single {@link java.security.SecureRandom}, on one thread and on as many threads as
+ * there are processors.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateGeneratorBenchmark
+{
+    @Benchmark
+    @Threads(1)
+    public String stateGenerator()
+    {
+        return StateGenerator.next();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String stateGeneratorAllProcessors()
+    {
+        return StateGenerator.next();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String randomUuid()
+    {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String randomUuidAllProcessors()
+    {
+        return UUID.randomUUID().toString();
+    }
+}
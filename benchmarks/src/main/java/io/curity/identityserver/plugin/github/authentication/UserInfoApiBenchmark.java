@@ -0,0 +1,169 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.ManageOrganization;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.MembershipCheck;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.UserInfoApi;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.curity.identityserver.sdk.attribute.Attribute;
+import se.curity.identityserver.sdk.authentication.AuthenticationResult;
+import se.curity.identityserver.sdk.service.SessionManager;
+import se.curity.identityserver.sdk.web.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static io.curity.identityserver.plugin.github.authentication.StandIns.CannedResponse;
+
+/**
+ * Compares the callback of a login that fetches the user info and the membership from the REST API of GitHub with
+ * one that fetches them from the GraphQL API.
+ *
+ * <p>Every response of GitHub takes {@code roundTripMillis}, so the score is the number of logins per second that
+ * one thread completes, i.e., the inverse of the latency of a login. The counters report the requests to GitHub,
+ * and the bytes of the bodies sent and received, per second; divided by the score, they are the traffic of one
+ * login.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UserInfoApiBenchmark
+{
+    private static final String ORGANIZATION_NAME = "curityio";
+    private static final String STATE = "0b2ee3e5-0cd5-4c5c-a5c6-4a1a4c86f1f4";
+
+    @Param({"REST", "GRAPHQL"})
+    public String api;
+
+    /**
+     * How the authenticator is configured to check the user's organization membership, if at all.
+     */
+    @Param({"NONE", "MEMBERS", "AUTHENTICATED_USER"})
+    public String organizationMembership;
+
+    /**
+     * The time that each response of GitHub takes.
+     */
+    @Param({"0", "20"})
+    public long roundTripMillis;
+
+    private CallbackRequestHandler _handler;
+    private SessionManager _sessionManager;
+    private CallbackGetRequestModel _requestModel;
+    private Response _response;
+    private Map<String, CannedResponse> _responses;
+    private int _requestBytes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Traffic
+    {
+        public long requests;
+        public long requestBytes;
+        public long responseBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        _responses = new HashMap<>();
+        _responses.put("/login/oauth/access_token", new CannedResponse(200, Fixtures.resource("token.json")));
+        _responses.put("/user", new CannedResponse(200, Fixtures.resource("user-full.json")));
+        _responses.put("/orgs/" + ORGANIZATION_NAME + "/members/octocat", new CannedResponse(204, ""));
+        _responses.put("/user/memberships/orgs/" + ORGANIZATION_NAME,
+                new CannedResponse(200, Fixtures.resource("membership.json")));
+        // The query only asks for the organization when the membership of the authenticated user is checked
+        _responses.put("/graphql", new CannedResponse(200, Fixtures.resource(
+                "AUTHENTICATED_USER".equals(organizationMembership)
+                        ? "graphql-user-organization.json"
+                        : "graphql-user.json")));
+        _responses.values().forEach(response -> response.withDelay(roundTripMillis));
+
+        _sessionManager = StandIns.sessionManager();
+
+        Map<String, Object> configuration = Fixtures.services(_sessionManager, _responses);
+
+        configuration.put("getUserInfoApi", UserInfoApi.valueOf(api));
+
+        if (!"NONE".equals(organizationMembership))
+        {
+            Map<String, Object> manageOrganization = new HashMap<>();
+
+            manageOrganization.put("getOrganizationName", Optional.of(ORGANIZATION_NAME));
+            manageOrganization.put("getAccess", GitHubAuthenticatorPluginConfig.Access.READ);
+            manageOrganization.put("getMembershipCheck", MembershipCheck.valueOf(organizationMembership));
+            configuration.put("getManageOrganization", Optional.of(
+                    StandIns.settings(ManageOrganization.class, manageOrganization)));
+        }
+
+        Map<String, String> parameters = new HashMap<>();
+
+        parameters.put("code", "a5a2d2f4c0d1e6b3a7c9");
+        parameters.put("state", STATE);
+
+        GitHubAuthenticatorPluginConfig config = StandIns.configuration(configuration);
+
+        _handler = new CallbackRequestHandler(config);
+        _requestModel = _handler.preProcess(StandIns.request(Collections.unmodifiableMap(parameters)),
+                StandIns.response());
+        _response = StandIns.response();
+        // The form of the token request is the same for both APIs, so only the query is counted
+        _requestBytes = "GRAPHQL".equals(api)
+                ? GraphQlQuery.compile(config).getBody().getBytes(StandardCharsets.UTF_8).length
+                : 0;
+    }
+
+    @Benchmark
+    public Optional<AuthenticationResult> callback(Traffic traffic)
+    {
+        // Every callback uses up the state, like the one of a real login does
+        _sessionManager.put(Attribute.of("state", STATE));
+
+        Optional<AuthenticationResult> result = _handler.get(_requestModel, _response);
+
+        for (CannedResponse response : _responses.values())
+        {
+            traffic.requests += response.takeRequests();
+            traffic.responseBytes += response.takeBytes();
+        }
+
+        traffic.requestBytes += _requestBytes;
+
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.config.ConfigurationScoped;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import se.curity.identityserver.sdk.service.ExceptionFactory;
+import se.curity.identityserver.sdk.service.authentication.AuthenticatorInformationProvider;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.curity.identityserver.plugin.github.authentication.RedirectUriUtil.createRedirectUri;
+
+/**
+ * The pre-encoded authorization requests of an authenticator instance, one per authentication URI.
+ *
+ * <p>The same authenticator can be reached through several host names or base URLs, and the redirect URI that is
+ * sent to GitHub depends on which one was used. Only the state differs between the authorization requests that are
+ * made through the same authentication URI, so everything else is encoded once and kept in a template.
+ */
+final class AuthorizationRequestTemplates
+{
+    static final String AUTHORIZATION_ENDPOINT = "https://github.com/login/oauth/authorize";
+
+    // The authentication URI is derived from the Host header, so only a few are kept to bound the memory that
+    // requests with made-up host names can take up
+    private static final int MAX_TEMPLATES = 32;
+
+    private static final ConfigurationScoped<AuthorizationRequestTemplates> _templatesByConfiguration =
+            new ConfigurationScoped<>(AuthorizationRequestTemplates::new);
+
+    private final GitHubAuthenticatorPluginConfig _config;
+    private final Map<URI, Template> _templates = new ConcurrentHashMap<>();
+
+    private AuthorizationRequestTemplates(GitHubAuthenticatorPluginConfig config)
+    {
+        _config = config;
+    }
+
+    static Template get(GitHubAuthenticatorPluginConfig config,
+                        AuthenticatorInformationProvider authenticatorInformationProvider,
+                        ExceptionFactory exceptionFactory)
+    {
+        return _templatesByConfiguration.get(config).get(authenticatorInformationProvider, exceptionFactory);
+    }
+
+    private Template get(AuthenticatorInformationProvider authenticatorInformationProvider,
+                         ExceptionFactory exceptionFactory)
+    {
+        URI authenticationUri = authenticatorInformationProvider.getFullyQualifiedAuthenticationUri();
+        Template template = _templates.get(authenticationUri);
+
+        if (template == null)
+        {
+            template = new Template(_config.getClientId(),
+                    createRedirectUri(authenticatorInformationProvider, exceptionFactory),
+                    ScopeSet.requiredBy(_config));
+
+            if (_templates.size() < MAX_TEMPLATES)
+            {
+                _templates.putIfAbsent(authenticationUri, template);
+            }
+        }
+
+        return template;
+    }
+
+    static final class Template
+    {
+        private final String _redirectUri;
+        private final String _authorizationRequestPrefix;
+
+        Template(String clientId, String redirectUri, ScopeSet scopes)
+        {
+            _redirectUri = redirectUri;
+            _authorizationRequestPrefix = AUTHORIZATION_ENDPOINT +
+                    "?client_id=" + urlEncode(clientId) +
+                    "&redirect_uri=" + urlEncode(redirectUri) +
+                    "&response_type=code" +
+                    "&scope=" + urlEncode(scopes.toString()) +
+                    "&state=";
+        }
+
+        String getRedirectUri()
+        {
+            return _redirectUri;
+        }
+
+        /**
+         * Creates the URL of an authorization request.
+         *
+         * @param state the state of the request, which must only contain characters that are allowed in a query
+         *              string as is, e.g., those of base64url
+         */
+        String getAuthorizationRequestUrl(String state)
+        {
+            return _authorizationRequestPrefix.concat(state);
+        }
+
+        private static String urlEncode(String value)
+        {
+            try
+            {
+                return URLEncoder.encode(value, "UTF-8");
+            }
+            catch (UnsupportedEncodingException e)
+            {
+                throw new IllegalStateException("UTF-8 is not supported", e);
+            }
+        }
+    }
+}
@@ -16,7 +16,28 @@
 
 package io.curity.identityserver.plugin.github.authentication;
 
+import io.curity.identityserver.plugin.github.cache.ConditionalResponseCache;
+import io.curity.identityserver.plugin.github.cache.ConditionalResponseCache.CachedResponse;
+import io.curity.identityserver.plugin.github.cache.ExpiringCache;
+import io.curity.identityserver.plugin.github.client.GitHubCalls;
+import io.curity.identityserver.plugin.github.client.GitHubEndpoint;
+import io.curity.identityserver.plugin.github.client.GitHubRequest;
+import io.curity.identityserver.plugin.github.client.GitHubRequestExecutor;
+import io.curity.identityserver.plugin.github.client.GitHubResponse;
+import io.curity.identityserver.plugin.github.client.GitHubTransport;
+import io.curity.identityserver.plugin.github.client.GitHubTransports;
+import io.curity.identityserver.plugin.github.client.JsonFields;
+import io.curity.identityserver.plugin.github.config.ConfigurationScoped;
 import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.MembershipCheck;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.StateMode;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.UserInfoApi;
+import io.curity.identityserver.plugin.github.metrics.Jmx;
+import io.curity.identityserver.plugin.github.metrics.LoginMetrics;
+import io.curity.identityserver.plugin.github.metrics.Outcome;
+import io.curity.identityserver.plugin.github.metrics.Phase;
+import io.curity.identityserver.plugin.github.metrics.Trace;
+import io.curity.identityserver.plugin.github.metrics.Tracing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import se.curity.identityserver.sdk.Nullable;
@@ -28,47 +49,64 @@ import se.curity.identityserver.sdk.attribute.SubjectAttributes;
 import se.curity.identityserver.sdk.authentication.AuthenticationResult;
 import se.curity.identityserver.sdk.authentication.AuthenticatorRequestHandler;
 import se.curity.identityserver.sdk.errors.ErrorCode;
-import se.curity.identityserver.sdk.http.HttpRequest;
-import se.curity.identityserver.sdk.http.HttpResponse;
 import se.curity.identityserver.sdk.http.HttpStatus;
 import se.curity.identityserver.sdk.service.ExceptionFactory;
-import se.curity.identityserver.sdk.service.HttpClient;
 import se.curity.identityserver.sdk.service.Json;
-import se.curity.identityserver.sdk.service.WebServiceClient;
-import se.curity.identityserver.sdk.service.WebServiceClientFactory;
 import se.curity.identityserver.sdk.service.authentication.AuthenticatorInformationProvider;
 import se.curity.identityserver.sdk.web.Request;
 import se.curity.identityserver.sdk.web.Response;
 
-import java.net.URI;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import static io.curity.identityserver.plugin.github.authentication.RedirectUriUtil.createRedirectUri;
-import static se.curity.identityserver.sdk.http.HttpRequest.createFormUrlEncodedBodyProcessor;
-
 public class CallbackRequestHandler implements AuthenticatorRequestHandler<CallbackGetRequestModel>
 {
     private static final Logger _logger = LoggerFactory.getLogger(CallbackRequestHandler.class);
+    private static final ConfigurationScoped<ExpiringCache<String, Boolean>> _membershipCaches =
+            new ConfigurationScoped<>(CallbackRequestHandler::createMembershipCache);
+    private static final ConfigurationScoped<ConditionalResponseCache<Map<String, Object>>> _userInfoCaches =
+            new ConfigurationScoped<>(CallbackRequestHandler::createUserInfoCache);
+    private static final ConfigurationScoped<UserInfoProjection> _userInfoProjections =
+            new ConfigurationScoped<>(UserInfoProjection::compile);
+    private static final ConfigurationScoped<GraphQlQuery> _graphQlQueries =
+            new ConfigurationScoped<>(GraphQlQuery::compile);
+    private static final ConfigurationScoped<ConditionalResponseCache<PrimaryEmail>> _primaryEmailCaches =
+            new ConfigurationScoped<>(CallbackRequestHandler::createPrimaryEmailCache);
+    static final JsonFields TOKEN_RESPONSE_FIELDS = JsonFields.of("access_token", "token_type", "scope");
+    // The ID of the GitHub user that last logged in with the browser, whose cached responses are revalidated
+    private static final String USER_ID_SESSION_ATTRIBUTE = "github_user_id";
 
     private final ExceptionFactory _exceptionFactory;
     private final GitHubAuthenticatorPluginConfig _config;
-    private final WebServiceClientFactory _webServiceClientFactory;
     private final AuthenticatorInformationProvider _authenticatorInformationProvider;
     private final Json _json;
+    private final GitHubCalls _gitHubCalls;
+    private final LoginMetrics _metrics;
+    private final UserInfoProjection _userInfoProjection;
+    @Nullable
+    private final GraphQlQuery _graphQlQuery;
 
     public CallbackRequestHandler(GitHubAuthenticatorPluginConfig config)
     {
         _exceptionFactory = config.getExceptionFactory();
         _config = config;
         _json = config.getJson();
-        _webServiceClientFactory = config.getWebServiceClientFactory();
         _authenticatorInformationProvider = config.getAuthenticatorInformationProvider();
+        _gitHubCalls = GitHubCalls.of(config);
+        _metrics = LoginMetrics.of(config);
+        _userInfoProjection = _userInfoProjections.get(config);
+        _graphQlQuery = config.getUserInfoApi() == UserInfoApi.GRAPHQL ? _graphQlQueries.get(config) : null;
+
+        WarmUp.ensureStarted(config);
     }
 
     @Override
@@ -88,43 +126,328 @@ public class CallbackRequestHandler implements AuthenticatorRequestHandler<Callb
     public Optional<AuthenticationResult> get(CallbackGetRequestModel requestModel,
                                               Response response)
     {
-        validateState(requestModel.getState());
-        handleError(requestModel);
+        long start = System.nanoTime();
+        long deadline = _gitHubCalls.newDeadline();
+        Trace trace = Tracing.begin(_config.id(), Phase.CALLBACK);
+        // How the login ends if the next step fails
+        Outcome failureOutcome = Outcome.BAD_STATE;
+        // Fetched in parallel with the rest of the login, which may fail before it is needed
+        @Nullable CompletableFuture<PrimaryEmail> primaryEmail = null;
+
+        try
+        {
+            validateState(requestModel.getState());
+
+            failureOutcome = "access_denied".equals(requestModel.getError())
+                    ? Outcome.ACCESS_DENIED
+                    : Outcome.UPSTREAM_ERROR;
+
+            handleError(requestModel);
+
+            failureOutcome = Outcome.UPSTREAM_ERROR;
+
+            Map<String, Object> tokenResponseData = redeemCodeForTokens(requestModel);
+
+            failureOutcome = Outcome.FORBIDDEN;
+
+            ScopeSet missingScopes = checkGrantedScopes(tokenResponseData);
+
+            failureOutcome = Outcome.UPSTREAM_ERROR;
+
+            @Nullable Object accessToken = tokenResponseData.get("access_token");
+            @Nullable String expectedUserId = getRememberedUserId();
+
+            if (accessToken != null && isEmailAccessGranted(tokenResponseData))
+            {
+                String token = accessToken.toString();
+
+                primaryEmail = CompletableFuture.supplyAsync(() -> getPrimaryEmail(token, expectedUserId, deadline),
+                        GitHubRequestExecutor.get());
+            }
+
+            Map<String, Object> userInfoResponseData;
+            @Nullable OrganizationMembership organizationMembership = null;
+            @Nullable String membershipOrganizationName = getOrganizationNameToCheck();
+            boolean isMember;
+
+            if (_graphQlQuery != null && accessToken != null)
+            {
+                GraphQlQuery.Result result = queryUserInfo(accessToken.toString(), expectedUserId, deadline);
+
+                userInfoResponseData = result.getUserInfo();
+                organizationMembership = result.getMembership();
+                // The query only checks the membership of the authenticated user, so MEMBERS is checked as with REST
+                isMember = result.isMember() && checkUserOrganizationMembership(
+                        Objects.toString(userInfoResponseData.get("login"), null),
+                        Objects.toString(userInfoResponseData.get("id"), null), accessToken.toString(), deadline);
+            }
+            else if (membershipOrganizationName != null && accessToken != null)
+            {
+                String token = accessToken.toString();
+                CompletableFuture<Map<String, Object>> userInfo = CompletableFuture.supplyAsync(
+                        () -> getUserInfo(token, expectedUserId, deadline), GitHubRequestExecutor.get());
+                CompletableFuture<OrganizationMembership> membership = CompletableFuture.supplyAsync(
+                        () -> getAuthenticatedUserMembership(membershipOrganizationName, token, expectedUserId,
+                                deadline),
+                        GitHubRequestExecutor.get());
+
+                awaitAll(userInfo, membership);
+
+                userInfoResponseData = join(userInfo);
+                organizationMembership = join(membership);
+                isMember = organizationMembership != null;
+            }
+            else
+            {
+                userInfoResponseData = getUserInfo(accessToken, expectedUserId, deadline);
+                isMember = checkUserOrganizationMembership(Objects.toString(userInfoResponseData.get("login"), null),
+                        Objects.toString(userInfoResponseData.get("id"), null), accessToken.toString(), deadline);
+            }
+
+            if (!isMember)
+            {
+                failureOutcome = Outcome.FORBIDDEN;
+
+                throw _exceptionFactory.forbiddenException(ErrorCode.ACCESS_DENIED);
+            }
+
+            @Nullable String verifiedEmail = primaryEmail == null
+                    ? null
+                    : keepPrimaryEmail(join(primaryEmail), expectedUserId, userInfoResponseData);
+            AuthenticationAttributes authenticationAttributes = createAuthenticationAttributes(tokenResponseData,
+                    userInfoResponseData, missingScopes, organizationMembership, verifiedEmail);
+
+            rememberUser(userInfoResponseData, expectedUserId);
+            _metrics.recordOutcome(Outcome.SUCCESS);
+
+            return Optional.of(new AuthenticationResult(authenticationAttributes));
+        }
+        catch (RuntimeException e)
+        {
+            _metrics.recordOutcome(failureOutcome);
+
+            if (primaryEmail != null)
+            {
+                primaryEmail.cancel(true);
+            }
+
+            throw e;
+        }
+        finally
+        {
+            trace.finish();
+            _metrics.recordPhase(Phase.CALLBACK, start);
+        }
+    }
+
+    /**
+     * Waits for all of the given calls to complete, but fails as soon as one of them does and cancels the others.
+     * Cancelling a call doesn't interrupt a request to GitHub that is under way, which ends by the deadline of the
+     * login, but nothing waits for it or uses its result.
+     */
+    private void awaitAll(CompletableFuture<?>... calls)
+    {
+        CompletableFuture<Object> firstFailure = new CompletableFuture<>();
+
+        for (CompletableFuture<?> call : calls)
+        {
+            call.whenComplete((result, failure) ->
+            {
+                if (failure != null)
+                {
+                    firstFailure.completeExceptionally(failure);
+                }
+            });
+        }
+
+        try
+        {
+            CompletableFuture.anyOf(CompletableFuture.allOf(calls), firstFailure).join();
+        }
+        catch (CompletionException e)
+        {
+            for (CompletableFuture<?> call : calls)
+            {
+                call.cancel(true);
+            }
+
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Gets the result of a call that was made in parallel, failing like the call did.
+     */
+    private <T> T join(CompletableFuture<T> call)
+    {
+        try
+        {
+            return call.join();
+        }
+        catch (CompletionException e)
+        {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private RuntimeException unwrap(Throwable failure)
+    {
+        if (failure instanceof RuntimeException)
+        {
+            return (RuntimeException) failure;
+        }
+
+        _logger.warn("Call to GitHub failed", failure);
+
+        return _exceptionFactory.internalServerException(ErrorCode.EXTERNAL_SERVICE_ERROR);
+    }
+
+    /**
+     * @return the organization to check the membership of the authenticated user in, if it is to be checked in
+     * parallel with fetching the user info
+     */
+    @Nullable
+    private String getOrganizationNameToCheck()
+    {
+        return _config.getManageOrganization()
+                .filter(manageOrganization ->
+                        manageOrganization.getMembershipCheck() == MembershipCheck.AUTHENTICATED_USER)
+                .flatMap(GitHubAuthenticatorPluginConfig.ManageOrganization::getOrganizationName)
+                .orElse(null);
+    }
+
+    AuthenticationAttributes createAuthenticationAttributes(Map<String, Object> tokenResponseData,
+                                                            Map<String, Object> userInfoResponseData,
+                                                            ScopeSet missingScopes,
+                                                            @Nullable OrganizationMembership organizationMembership,
+                                                            @Nullable String verifiedEmail)
+    {
+        long start = System.nanoTime();
+        Trace trace = Tracing.begin(_config.id(), Phase.ATTRIBUTES);
+
+        try
+        {
+            return assembleAuthenticationAttributes(_config, _userInfoProjection, tokenResponseData,
+                    userInfoResponseData, missingScopes, organizationMembership, verifiedEmail);
+        }
+        finally
+        {
+            trace.finish();
+            _metrics.recordPhase(Phase.ATTRIBUTES, start);
+        }
+    }
 
-        Map<String, Object> tokenResponseData = redeemCodeForTokens(requestModel);
-        @Nullable Object accessToken = tokenResponseData.get("access_token");
-        Map<String, String> userInfoResponseData = getUserInfo(accessToken);
+    /**
+     * Assembles the attributes of a login from the responses of GitHub. It depends on nothing but the configuration,
+     * so that the warm-up can run it outside of a request.
+     *
+     * @param verifiedEmail the primary email address of the user, if it was fetched and is verified, which is used
+     *                      instead of the public one in the user info
+     */
+    static AuthenticationAttributes assembleAuthenticationAttributes(
+            GitHubAuthenticatorPluginConfig config, UserInfoProjection userInfoProjection,
+            Map<String, Object> tokenResponseData, Map<String, Object> userInfoResponseData, ScopeSet missingScopes,
+            @Nullable OrganizationMembership organizationMembership, @Nullable String verifiedEmail)
+    {
         List<Attribute> subjectAttributes = new LinkedList<>(), contextAttributes = new LinkedList<>();
-        String login = userInfoResponseData.get("login");
+        String login = Objects.toString(userInfoResponseData.get("login"), null);
+        Map<String, Object> userInfo = userInfoResponseData;
+
+        if (verifiedEmail != null)
+        {
+            // The user info may be cached, so it is not modified
+            userInfo = new HashMap<>(userInfoResponseData);
+            userInfo.put("email", verifiedEmail);
+        }
 
         subjectAttributes.add(Attribute.of("subject", login));
-        subjectAttributes.addAll(Attributes.fromMap(userInfoResponseData).stream().collect(Collectors.toList()));
+        subjectAttributes.addAll(Attributes.fromMap(userInfoProjection.getSubjectAttributes(userInfo))
+                .stream().collect(Collectors.toList()));
 
+        if (verifiedEmail != null)
+        {
+            subjectAttributes.addAll(Attributes.fromMap(Collections.singletonMap("email_verified", true))
+                    .stream().collect(Collectors.toList()));
+        }
 
-        _config.getManageOrganization().ifPresent(manageOrganization ->
+        config.getManageOrganization().ifPresent(manageOrganization ->
                 manageOrganization.getOrganizationName().ifPresent(organizationName ->
                         subjectAttributes.add(Attribute.of("organization_name", organizationName))
                 )
         );
 
-        checkUserOrganizationMembership(userInfoResponseData.get("login"), accessToken.toString());
+        if (organizationMembership != null)
+        {
+            subjectAttributes.add(Attribute.of("organization_role", organizationMembership.getRole()));
+            subjectAttributes.add(Attribute.of("organization_membership_state", organizationMembership.getState()));
+        }
 
-        contextAttributes.add(Attribute.of("created_at", userInfoResponseData.get("created_at")));
-        contextAttributes.add(Attribute.of("updated_at", userInfoResponseData.get("updated_at")));
-        contextAttributes.add(Attribute.of("user_type", userInfoResponseData.get("type")));
-        contextAttributes.add(Attribute.of("github_access_token", Objects.toString(accessToken)));
+        contextAttributes.addAll(Attributes.fromMap(userInfoProjection.getContextAttributes(userInfo))
+                .stream().collect(Collectors.toList()));
+        contextAttributes.add(Attribute.of("github_access_token",
+                Objects.toString(tokenResponseData.get("access_token"))));
         contextAttributes.add(Attribute.of("github_token_type", Objects.toString(tokenResponseData.get("token_type"),
                 "bearer")));
         contextAttributes.add(Attribute.of("granted_scopes", Objects.toString(tokenResponseData.get("scope"), "")));
+        contextAttributes.add(Attribute.of("missing_scopes", missingScopes.toString()));
 
-        AuthenticationAttributes authenticationAttributes = AuthenticationAttributes.of(
+        return AuthenticationAttributes.of(
                 SubjectAttributes.of(login, Attributes.of(subjectAttributes)),
                 ContextAttributes.of(contextAttributes));
+    }
+
+    /**
+     * @return the ID of the GitHub user that last logged in with the browser, if it is remembered
+     */
+    @Nullable
+    private String getRememberedUserId()
+    {
+        if (_config.getUserInfoCacheTimeToLive() <= 0)
+        {
+            return null;
+        }
+
+        @Nullable Attribute userId = _config.getSessionManager().get(USER_ID_SESSION_ATTRIBUTE);
+
+        return userId == null ? null : userId.getValueOfType(String.class);
+    }
+
+    /**
+     * Remembers the user that logged in with the browser, so that the cached responses of the user are revalidated
+     * the next time, although GitHub issues a new access token.
+     */
+    private void rememberUser(Map<String, Object> userInfo, @Nullable String rememberedUserId)
+    {
+        @Nullable Object userId = userInfo.get("id");
+
+        if (_config.getUserInfoCacheTimeToLive() > 0 && userId != null &&
+                !userId.toString().equals(rememberedUserId))
+        {
+            _config.getSessionManager().put(Attribute.of(USER_ID_SESSION_ATTRIBUTE, userId.toString()));
+        }
+    }
+
+    /**
+     * @param expectedUserId the ID of the user whose cached user info GitHub is asked to confirm, if any
+     */
+    Map<String, Object> getUserInfo(@Nullable Object accessToken, @Nullable String expectedUserId, long deadline)
+    {
+        long start = System.nanoTime();
+        Trace trace = Tracing.begin(_config.id(), Phase.USER_INFO);
 
-        return Optional.of(new AuthenticationResult(authenticationAttributes));
+        try
+        {
+            return fetchUserInfo(accessToken, expectedUserId, deadline, trace);
+        }
+        finally
+        {
+            trace.finish();
+            _metrics.recordPhase(Phase.USER_INFO, start);
+        }
     }
 
-    private Map<String, String> getUserInfo(@Nullable Object accessToken)
+    private Map<String, Object> fetchUserInfo(@Nullable Object accessToken, @Nullable String expectedUserId,
+                                              long deadline, Trace trace)
     {
         if (accessToken == null)
         {
@@ -133,86 +456,383 @@ public class CallbackRequestHandler implements AuthenticatorRequestHandler<Callb
             throw _exceptionFactory.internalServerException(ErrorCode.EXTERNAL_SERVICE_ERROR);
         }
 
-        HttpResponse userInfoResponse = getWebServiceClient("https://api.github.com/user")
-                .request()
-                .accept("application/json")
-                .header("Authorization", "Bearer " + accessToken.toString())
-                .get()
-                .response();
-        int statusCode = userInfoResponse.statusCode();
+        String token = accessToken.toString();
+        ConditionalResponseCache<Map<String, Object>> userInfoCache = _userInfoCaches.get(_config);
+        @Nullable CachedResponse<Map<String, Object>> cachedUserInfo = userInfoCache.get(expectedUserId);
+        GitHubTransport transport = GitHubTransports.get(_config);
+        GitHubRequest userInfoRequest = GitHubRequest.get(GitHubEndpoint.USER, "/user").withAccessToken(token);
+
+        if (cachedUserInfo != null)
+        {
+            userInfoRequest.withHeader("If-None-Match", cachedUserInfo.getETag());
+        }
+
+        // The user is not known until GitHub answers, so the rate limit of the expected user is checked, and that of
+        // another user that logged in instead is recorded afterwards
+        GitHubResponse userInfoResponse = _gitHubCalls.executeHedged(GitHubEndpoint.USER, expectedUserId, deadline,
+                () -> transport.send(userInfoRequest));
+        int statusCode = userInfoResponse.getStatusCode();
+
+        trace.response(userInfoResponse);
+
+        if (statusCode == HttpStatus.NOT_MODIFIED.getCode() && cachedUserInfo != null)
+        {
+            _logger.debug("User info has not changed since it was cached");
+
+            Map<String, Object> userInfo = cachedUserInfo.getValue();
+            String userId = Objects.requireNonNull(expectedUserId);
+
+            userInfoCache.refresh(userId, cachedUserInfo);
+
+            return userInfo;
+        }
 
         if (statusCode != 200)
         {
             if (_logger.isWarnEnabled())
             {
                 _logger.warn("Got an error response from the user info endpoint. Error = {}, {}", statusCode,
-                        userInfoResponse.body(HttpResponse.asString()));
+                        userInfoResponse.getBodyAsString());
             }
 
             throw _exceptionFactory.internalServerException(ErrorCode.EXTERNAL_SERVICE_ERROR);
         }
 
-        return _json.fromJson(userInfoResponse.body(HttpResponse.asString()))
-                .entrySet().stream()
-                .filter(e -> e.getValue() instanceof String)
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> (String) e.getValue()));
+        Map<String, Object> userInfo = readFields(_userInfoProjection.getFields(), userInfoResponse.getBody());
+        @Nullable Object userId = userInfo.get("id");
+
+        if (userId != null)
+        {
+            if (!userId.toString().equals(expectedUserId))
+            {
+                _gitHubCalls.recordRateLimit(GitHubEndpoint.USER, userId.toString(), userInfoResponse);
+            }
+
+            userInfoResponse.getHeader("ETag").ifPresent(eTag -> userInfoCache.put(userId.toString(), eTag, userInfo));
+        }
+
+        return userInfo;
     }
 
-    private WebServiceClient getWebServiceClient(String uri)
+    /**
+     * Fetches the user info and, if the membership check is AUTHENTICATED_USER, the membership of the organization in
+     * a single query of the GraphQL API.
+     *
+     * @param expectedUserId the ID of the user that last logged in with the browser, if any, whose rate limit of the
+     *                       GraphQL API is checked before the query is sent
+     */
+    GraphQlQuery.Result queryUserInfo(String accessToken, @Nullable String expectedUserId, long deadline)
     {
-        Optional<HttpClient> httpClient = _config.getHttpClient();
-        URI u = URI.create(uri);
+        long start = System.nanoTime();
+        Trace trace = Tracing.begin(_config.id(), Phase.USER_INFO);
 
-        if (httpClient.isPresent())
+        try
         {
-            HttpClient h = httpClient.get();
-            String configuredScheme = h.getScheme();
-            String requiredScheme = u.getScheme();
+            return fetchUserInfoWithGraphQl(accessToken, expectedUserId, deadline, trace);
+        }
+        finally
+        {
+            trace.finish();
+            _metrics.recordPhase(Phase.USER_INFO, start);
+        }
+    }
 
-            if (!Objects.equals(configuredScheme, requiredScheme))
-            {
-                _logger.debug("HTTP client was configured with the scheme {} but {} was expected. Ensure that the " +
-                        "configuration is correct.", configuredScheme, requiredScheme);
+    private GraphQlQuery.Result fetchUserInfoWithGraphQl(String accessToken, @Nullable String expectedUserId,
+                                                         long deadline, Trace trace)
+    {
+        GraphQlQuery query = Objects.requireNonNull(_graphQlQuery);
+        GitHubTransport transport = GitHubTransports.get(_config);
+        // The query only reads, so it can be sent again like a GET request. No other call of the login counts against
+        // the rate limit of the GraphQL API, so it is checked for the user that is expected, unlike that of the REST
+        // user info
+        GitHubResponse queryResponse = _gitHubCalls.executeHedged(GitHubEndpoint.GRAPHQL, expectedUserId, deadline,
+                () -> transport.send(GitHubRequest.postJson(GitHubEndpoint.GRAPHQL, "/graphql", query.getBody())
+                        .withAccessToken(accessToken)));
+        int statusCode = queryResponse.getStatusCode();
 
-                throw _exceptionFactory.internalServerException(ErrorCode.CONFIGURATION_ERROR,
-                        String.format("HTTP scheme of client is not acceptable; %s is required but %s was found",
-                                requiredScheme, configuredScheme));
+        trace.response(queryResponse);
+
+        if (statusCode != HttpStatus.OK.getCode())
+        {
+            if (_logger.isWarnEnabled())
+            {
+                _logger.warn("Got an error response from the GraphQL API. Error = {}, {}", statusCode,
+                        queryResponse.getBodyAsString());
             }
 
-            return _webServiceClientFactory.create(h).withHost(u.getHost()).withPath(u.getPath());
+            throw _exceptionFactory.internalServerException(ErrorCode.EXTERNAL_SERVICE_ERROR);
+        }
+
+        GraphQlQuery.Result result;
+
+        try
+        {
+            result = query.read(queryResponse.getBody());
         }
-        else
+        catch (IllegalArgumentException e)
         {
-            return _webServiceClientFactory.create(u);
+            _logger.warn("Got a response from the GraphQL API that could not be used: {}", e.getMessage());
+            _logger.debug("The response of the GraphQL API was {}", queryResponse.getBodyAsString());
+
+            throw _exceptionFactory.internalServerException(ErrorCode.EXTERNAL_SERVICE_ERROR);
+        }
+
+        @Nullable Object userId = result.getUserInfo().get("id");
+
+        if (userId != null && !userId.toString().equals(expectedUserId))
+        {
+            _gitHubCalls.recordRateLimit(GitHubEndpoint.GRAPHQL, userId.toString(), queryResponse);
         }
+
+        return result;
     }
 
-    private Map<String, Object> redeemCodeForTokens(CallbackGetRequestModel requestModel)
+    /**
+     * @return true if the authenticator asks for the email addresses of the user and the user granted access to them
+     */
+    private boolean isEmailAccessGranted(Map<String, Object> tokenResponseData)
     {
-        HttpRequest.BodyProcessor requestBody = createFormUrlEncodedBodyProcessor(createPostData(_config.getClientId(),
-                _config.getClientSecret(),
-                requestModel.getCode(), createRedirectUri(_authenticatorInformationProvider, _exceptionFactory)));
+        @Nullable Object grantedScopes = tokenResponseData.get("scope");
 
-        HttpResponse tokenResponse = getWebServiceClient("https://github.com/login/oauth/access_token")
-                .request()
-                .contentType("application/x-www-form-urlencoded")
-                .accept("application/json")
-                .body(requestBody)
-                .post()
-                .response();
-        int statusCode = tokenResponse.statusCode();
-        String body = tokenResponse.body(HttpResponse.asString());
+        return _config.getManageUser().map(GitHubAuthenticatorPluginConfig.ManageUser::isEmailAccess).orElse(false)
+                && grantedScopes instanceof String
+                && (GitHubScope.withImpliedScopes(GitHubScope.parse((String) grantedScopes)) &
+                GitHubScope.USER_EMAIL.bit()) != 0;
+    }
+
+    /**
+     * Gets the primary email address of the user. It is optional for the login, so if it can't be fetched, the one
+     * that was cached for the expected user is used, if any.
+     *
+     * @param expectedUserId the ID of the user whose cached address GitHub is asked to confirm, if any
+     */
+    PrimaryEmail getPrimaryEmail(String accessToken, @Nullable String expectedUserId, long deadline)
+    {
+        long start = System.nanoTime();
+        Trace trace = Tracing.begin(_config.id(), Phase.USER_EMAILS);
+
+        try
+        {
+            return fetchPrimaryEmail(accessToken, expectedUserId, deadline, trace);
+        }
+        finally
+        {
+            trace.finish();
+            _metrics.recordPhase(Phase.USER_EMAILS, start);
+        }
+    }
+
+    private PrimaryEmail fetchPrimaryEmail(String accessToken, @Nullable String expectedUserId, long deadline,
+                                           Trace trace)
+    {
+        @Nullable CachedResponse<PrimaryEmail> cachedEmail = _primaryEmailCaches.get(_config).get(expectedUserId);
+
+        // Until the user info confirms who logged in, the rate limit of the expected user is the best guess
+        if (!_gitHubCalls.permitsOptionalCall(GitHubEndpoint.USER_EMAILS, expectedUserId))
+        {
+            _logger.debug("Little is left of the rate limit, so the email addresses of the user are not fetched");
+
+            return unconfirmed(cachedEmail);
+        }
+
+        GitHubTransport transport = GitHubTransports.get(_config);
+        GitHubRequest emailsRequest = GitHubRequest.get(GitHubEndpoint.USER_EMAILS, "/user/emails")
+                .withAccessToken(accessToken);
+
+        if (cachedEmail != null)
+        {
+            emailsRequest.withHeader("If-None-Match", cachedEmail.getETag());
+        }
+
+        GitHubResponse emailsResponse;
+
+        try
+        {
+            emailsResponse = _gitHubCalls.executeGet(GitHubEndpoint.USER_EMAILS, expectedUserId, deadline,
+                    () -> transport.send(emailsRequest));
+        }
+        catch (RuntimeException e)
+        {
+            _logger.info("Could not fetch the email addresses of the user: {}", e.toString());
+
+            return unconfirmed(cachedEmail);
+        }
+
+        int statusCode = emailsResponse.getStatusCode();
+
+        trace.response(emailsResponse);
+
+        if (statusCode == HttpStatus.NOT_MODIFIED.getCode() && cachedEmail != null)
+        {
+            _logger.debug("Email addresses of the user have not changed since they were cached");
+
+            return cachedEmail.getValue();
+        }
+
+        if (statusCode != HttpStatus.OK.getCode())
+        {
+            _logger.info("Got an error response from the email addresses endpoint: error = {}", statusCode);
+
+            return unconfirmed(cachedEmail);
+        }
+
+        try
+        {
+            return PrimaryEmail.of(PrimaryEmail.FIELDS.readArray(emailsResponse.getBody()),
+                    emailsResponse.getHeader("ETag").orElse(null));
+        }
+        catch (IllegalArgumentException e)
+        {
+            _logger.warn("Got email addresses from GitHub that could not be parsed: {}", e.getMessage());
+
+            return unconfirmed(cachedEmail);
+        }
+    }
+
+    /**
+     * @return the cached primary email address, without an ETag, since GitHub didn't confirm it
+     */
+    private static PrimaryEmail unconfirmed(@Nullable CachedResponse<PrimaryEmail> cachedEmail)
+    {
+        return new PrimaryEmail(cachedEmail == null ? null : cachedEmail.getValue().getAddress(), null);
+    }
+
+    /**
+     * Caches the primary email address by the ID of the user, which is only known once the user info has been
+     * fetched, if GitHub sent or confirmed it.
+     *
+     * @return the address, or null if the user has no verified primary email address or it was taken from the cache
+     * of another user than the one that logged in
+     */
+    @Nullable
+    private String keepPrimaryEmail(PrimaryEmail primaryEmail, @Nullable String expectedUserId,
+                                    Map<String, Object> userInfo)
+    {
+        @Nullable String eTag = primaryEmail.getETag();
+        @Nullable Object userId = userInfo.get("id");
+
+        if (eTag == null)
+        {
+            // GitHub didn't confirm it, so it is only known to be the user's own if the expected user logged in
+            return userId != null && userId.toString().equals(expectedUserId) ? primaryEmail.getAddress() : null;
+        }
+
+        if (userId != null)
+        {
+            _primaryEmailCaches.get(_config).put(userId.toString(), eTag, primaryEmail);
+        }
+
+        return primaryEmail.getAddress();
+    }
+
+    private static ConditionalResponseCache<PrimaryEmail> createPrimaryEmailCache(
+            GitHubAuthenticatorPluginConfig config)
+    {
+        ConditionalResponseCache<PrimaryEmail> cache = new ConditionalResponseCache<>(
+                config.getUserInfoCacheSize(), TimeUnit.SECONDS.toMillis(config.getUserInfoCacheTimeToLive()));
+
+        Jmx.register("PrimaryEmailCache", config.id(), cache.getStatistics());
+
+        return cache;
+    }
+
+    private static ConditionalResponseCache<Map<String, Object>> createUserInfoCache(
+            GitHubAuthenticatorPluginConfig config)
+    {
+        ConditionalResponseCache<Map<String, Object>> cache = new ConditionalResponseCache<>(
+                config.getUserInfoCacheSize(), TimeUnit.SECONDS.toMillis(config.getUserInfoCacheTimeToLive()));
+
+        Jmx.register("UserInfoCache", config.id(), cache.getStatistics());
+
+        return cache;
+    }
+
+    Map<String, Object> redeemCodeForTokens(CallbackGetRequestModel requestModel)
+    {
+        long start = System.nanoTime();
+        Trace trace = Tracing.begin(_config.id(), Phase.REDEEM_CODE);
+
+        try
+        {
+            return requestTokens(requestModel, trace);
+        }
+        finally
+        {
+            trace.finish();
+            _metrics.recordPhase(Phase.REDEEM_CODE, start);
+        }
+    }
+
+    private Map<String, Object> requestTokens(CallbackGetRequestModel requestModel, Trace trace)
+    {
+        GitHubRequest tokenRequest = GitHubRequest.post(GitHubEndpoint.ACCESS_TOKEN, "/login/oauth/access_token",
+                createPostData(_config.getClientId(), _config.getClientSecret(), requestModel.getCode(),
+                        AuthorizationRequestTemplates.get(_config, _authenticatorInformationProvider,
+                                _exceptionFactory).getRedirectUri()));
+        GitHubTransport transport = GitHubTransports.get(_config);
+        GitHubResponse tokenResponse = _gitHubCalls.executeRetryingConnectFailures(GitHubEndpoint.ACCESS_TOKEN, null,
+                () -> transport.send(tokenRequest));
+        int statusCode = tokenResponse.getStatusCode();
+
+        trace.response(tokenResponse);
 
         if (statusCode != 200)
         {
-            _logger.info("Got error response from token endpoint: error = {}, {}", statusCode, body);
+            if (_logger.isInfoEnabled())
+            {
+                _logger.info("Got error response from token endpoint: error = {}, {}", statusCode,
+                        tokenResponse.getBodyAsString());
+            }
 
             throw _exceptionFactory.internalServerException(ErrorCode.EXTERNAL_SERVICE_ERROR);
         }
 
-        _logger.debug("Body of token response from GitHub: {}", body);
+        if (_logger.isDebugEnabled())
+        {
+            _logger.debug("Body of token response from GitHub: {}", tokenResponse.getBodyAsString());
+        }
 
-        return _json.fromJson(body);
+        return readFields(TOKEN_RESPONSE_FIELDS, tokenResponse.getBody());
+    }
+
+    private Map<String, Object> readFields(JsonFields fields, byte[] json)
+    {
+        try
+        {
+            return fields.read(json);
+        }
+        catch (IllegalArgumentException e)
+        {
+            _logger.warn("Got a response from GitHub that could not be parsed: {}", e.getMessage());
+
+            throw _exceptionFactory.internalServerException(ErrorCode.EXTERNAL_SERVICE_ERROR);
+        }
+    }
+
+    /**
+     * Checks that the user granted all of the scopes that were requested. Users can deselect some scopes on GitHub's
+     * consent page, in which case the token is issued for fewer scopes.
+     *
+     * @return the scopes that were requested but not granted
+     */
+    ScopeSet checkGrantedScopes(Map<String, Object> tokenResponseData)
+    {
+        @Nullable Object grantedScopes = tokenResponseData.get("scope");
+        ScopeSet missingScopes = ScopeSet.requiredBy(_config).missingFrom(grantedScopes instanceof String
+                ? GitHubScope.parse((String) grantedScopes)
+                : 0);
+
+        if (!missingScopes.isEmpty())
+        {
+            _logger.debug("The user did not grant the scopes {}", missingScopes);
+
+            if (_config.isRequireAllScopes())
+            {
+                throw _exceptionFactory.forbiddenException(ErrorCode.ACCESS_DENIED);
+            }
+        }
+
+        return missingScopes;
     }
 
     private static Map<String, String> createPostData(String clientId, String clientSecret, String code,
@@ -229,27 +849,180 @@ public class CallbackRequestHandler implements AuthenticatorRequestHandler<Callb
         return data;
     }
 
-    private void checkUserOrganizationMembership(String username, String accessToken)
+    /**
+     * Checks that the user is a member of the organization, if the authenticator is configured to look the user up
+     * among its members.
+     *
+     * @param userId the ID of the user, if it is known, whose rate limit the check counts against
+     * @return false if the user is not a member and must not log in
+     */
+    boolean checkUserOrganizationMembership(String username, @Nullable String userId, String accessToken,
+                                            long deadline)
     {
-        _config.getManageOrganization().ifPresent(manageOrganization ->
-                manageOrganization.getOrganizationName().ifPresent(organizationName ->
-                {
-                    HttpResponse tokenResponse = getWebServiceClient("https://api.github.com/orgs/" +
-                            organizationName + "/members/" + username)
-                            .request()
-                            .accept("application/json")
-                            .header("Authorization", "Bearer " + accessToken)
-                            .get()
-                            .response();
-                    int statusCode = tokenResponse.statusCode();
-                    if (tokenResponse.statusCode() != HttpStatus.NO_CONTENT.getCode())
-                    {
-                        _logger.info("Got error response from user organization membership: error = {}", statusCode);
-
-                        throw _exceptionFactory.forbiddenException(ErrorCode.ACCESS_DENIED);
-                    }
-                })
-        );
+        long start = System.nanoTime();
+        Trace trace = Tracing.begin(_config.id(), Phase.MEMBERSHIP_CHECK);
+
+        try
+        {
+            return _config.getManageOrganization()
+                    .filter(manageOrganization ->
+                            manageOrganization.getMembershipCheck() == MembershipCheck.MEMBERS)
+                    .flatMap(manageOrganization -> manageOrganization.getOrganizationName()
+                            .map(organizationName -> isOrganizationMember(manageOrganization, organizationName,
+                                    username, userId, accessToken, deadline, trace)))
+                    .orElse(true);
+        }
+        finally
+        {
+            trace.finish();
+            _metrics.recordPhase(Phase.MEMBERSHIP_CHECK, start);
+        }
+    }
+
+    private boolean isOrganizationMember(GitHubAuthenticatorPluginConfig.ManageOrganization manageOrganization,
+                                         String organizationName, String username, @Nullable String userId,
+                                         String accessToken, long deadline, Trace trace)
+    {
+        ExpiringCache<String, Boolean> membershipCache = _membershipCaches.get(_config);
+        // Keyed by the ID of the user, since a login that is renamed can be taken by another user
+        @Nullable String cacheKey = userId == null ? null : organizationName + "/" + userId;
+        @Nullable Boolean isMember = cacheKey == null ? null : membershipCache.get(cacheKey);
+
+        if (isMember == null && cacheKey != null &&
+                !_gitHubCalls.permitsOptionalCall(GitHubEndpoint.ORGANIZATION_MEMBER, userId))
+        {
+            // Little is left of the rate limit, so rather trust that a user was recently not a member than check it
+            // again. A membership that has expired is never trusted, so that removed members can't log in.
+            if (Boolean.FALSE.equals(membershipCache.getStale(cacheKey,
+                    TimeUnit.SECONDS.toMillis(manageOrganization.getNonMembershipCacheTimeToLive()))))
+            {
+                isMember = false;
+            }
+        }
+
+        if (isMember == null)
+        {
+            GitHubTransport transport = GitHubTransports.get(_config);
+            GitHubRequest memberRequest = GitHubRequest.get(GitHubEndpoint.ORGANIZATION_MEMBER,
+                    "/orgs/" + organizationName + "/members/" + username).withAccessToken(accessToken);
+            GitHubResponse tokenResponse = _gitHubCalls.executeGet(GitHubEndpoint.ORGANIZATION_MEMBER, userId,
+                    deadline, () -> transport.send(memberRequest));
+            int statusCode = tokenResponse.getStatusCode();
+
+            trace.response(tokenResponse);
+
+            isMember = statusCode == HttpStatus.NO_CONTENT.getCode();
+
+            if (!isMember)
+            {
+                _logger.info("Got error response from user organization membership: error = {}", statusCode);
+            }
+
+            if (cacheKey == null)
+            {
+                _logger.debug("Membership of {} is not cached, since the ID of the user is not known", username);
+            }
+            else if (isMember)
+            {
+                membershipCache.put(cacheKey, true,
+                        TimeUnit.SECONDS.toMillis(manageOrganization.getMembershipCacheTimeToLive()));
+            }
+            else if (statusCode == HttpStatus.NOT_FOUND.getCode())
+            {
+                membershipCache.put(cacheKey, false,
+                        TimeUnit.SECONDS.toMillis(manageOrganization.getNonMembershipCacheTimeToLive()));
+            }
+        }
+        else
+        {
+            _logger.debug("Membership of {} in {} was found in the cache: {}", username, organizationName,
+                    isMember);
+        }
+
+        return isMember;
+    }
+
+    private static ExpiringCache<String, Boolean> createMembershipCache(GitHubAuthenticatorPluginConfig config)
+    {
+        ExpiringCache<String, Boolean> cache = new ExpiringCache<>(config.getManageOrganization()
+                .map(GitHubAuthenticatorPluginConfig.ManageOrganization::getMembershipCacheSize)
+                .orElse(1));
+
+        Jmx.register("MembershipCache", config.id(), cache);
+
+        return cache;
+    }
+
+    /**
+     * Gets the membership of the authenticated user in the organization.
+     *
+     * @param expectedUserId the ID of the user that last logged in with the browser, if any, whose rate limit the
+     *                       request is checked against, since it is made along with fetching the user info
+     * @return the membership, or null if the user is not an active member and must not log in
+     */
+    @Nullable
+    OrganizationMembership getAuthenticatedUserMembership(String organizationName, String accessToken,
+                                                          @Nullable String expectedUserId, long deadline)
+    {
+        long start = System.nanoTime();
+        Trace trace = Tracing.begin(_config.id(), Phase.MEMBERSHIP_CHECK);
+
+        try
+        {
+            return fetchAuthenticatedUserMembership(organizationName, accessToken, expectedUserId, deadline, trace);
+        }
+        finally
+        {
+            trace.finish();
+            _metrics.recordPhase(Phase.MEMBERSHIP_CHECK, start);
+        }
+    }
+
+    @Nullable
+    private OrganizationMembership fetchAuthenticatedUserMembership(String organizationName, String accessToken,
+                                                                    @Nullable String expectedUserId, long deadline,
+                                                                    Trace trace)
+    {
+        GitHubTransport transport = GitHubTransports.get(_config);
+        GitHubRequest membershipRequest = GitHubRequest.get(GitHubEndpoint.ORGANIZATION_MEMBERSHIP,
+                "/user/memberships/orgs/" + organizationName).withAccessToken(accessToken);
+        GitHubResponse membershipResponse = _gitHubCalls.executeGet(GitHubEndpoint.ORGANIZATION_MEMBERSHIP,
+                expectedUserId, deadline, () -> transport.send(membershipRequest));
+        int statusCode = membershipResponse.getStatusCode();
+
+        trace.response(membershipResponse);
+
+        if (statusCode == HttpStatus.FORBIDDEN.getCode() || statusCode == HttpStatus.NOT_FOUND.getCode())
+        {
+            _logger.info("User is not a member of the organization {}: status = {}", organizationName, statusCode);
+
+            return null;
+        }
+        else if (statusCode != HttpStatus.OK.getCode())
+        {
+            if (_logger.isWarnEnabled())
+            {
+                _logger.warn("Got an error response from the organization membership endpoint. Error = {}, {}",
+                        statusCode, membershipResponse.getBodyAsString());
+            }
+
+            throw _exceptionFactory.internalServerException(ErrorCode.EXTERNAL_SERVICE_ERROR);
+        }
+
+        Map<String, Object> membershipData = _json.fromJson(membershipResponse.getBodyAsString());
+        OrganizationMembership membership = new OrganizationMembership(
+                Objects.toString(membershipData.get("role"), null),
+                Objects.toString(membershipData.get("state"), null));
+
+        if (!membership.isActive())
+        {
+            _logger.info("Membership of the user in the organization {} is not active: state = {}",
+                    organizationName, membership.getState());
+
+            return null;
+        }
+
+        return membership;
     }
 
     @Override
@@ -279,19 +1052,48 @@ public class CallbackRequestHandler implements AuthenticatorRequestHandler<Callb
         }
     }
 
-    private void validateState(String state)
+    void validateState(String state)
     {
-        @Nullable Attribute sessionAttribute = _config.getSessionManager().get("state");
+        long start = System.nanoTime();
+        Trace trace = Tracing.begin(_config.id(), Phase.VALIDATE_STATE);
 
-        if (sessionAttribute != null && state.equals(sessionAttribute.getValueOfType(String.class)))
+        try
         {
-            _logger.debug("State matches session");
+            @Nullable String sessionId = _config.getStateMode() == StateMode.SIGNED
+                    ? _config.getSessionManager().getSessionId()
+                    : null;
+
+            if (sessionId != null && SignedState.isSignedForm(state))
+            {
+                if (!SignedState.of(_config).verify(state, sessionId))
+                {
+                    throw _exceptionFactory.badRequestException(ErrorCode.INVALID_SERVER_STATE,
+                            "Bad state provided");
+                }
+            }
+            else
+            {
+                // The state is in the session in SESSION mode, and in SIGNED mode when the login started before the
+                // session had an ID. It is removed, so that it can't be used again nor confused with a later state.
+                @Nullable Attribute sessionAttribute = _config.getSessionManager().remove("state");
+
+                if (sessionAttribute != null && state.equals(sessionAttribute.getValueOfType(String.class)))
+                {
+                    _logger.debug("State matches session");
+                }
+                else
+                {
+                    _logger.debug("State did not match session");
+
+                    throw _exceptionFactory.badRequestException(ErrorCode.INVALID_SERVER_STATE,
+                            "Bad state provided");
+                }
+            }
         }
-        else
+        finally
         {
-            _logger.debug("State did not match session");
-
-            throw _exceptionFactory.badRequestException(ErrorCode.INVALID_SERVER_STATE, "Bad state provided");
+            trace.finish();
+            _metrics.recordPhase(Phase.VALIDATE_STATE, start);
         }
     }
 }
@@ -17,8 +17,14 @@
 package io.curity.identityserver.plugin.github.authentication;
 
 import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.StateMode;
+import io.curity.identityserver.plugin.github.metrics.LoginMetrics;
+import io.curity.identityserver.plugin.github.metrics.Phase;
+import io.curity.identityserver.plugin.github.metrics.Trace;
+import io.curity.identityserver.plugin.github.metrics.Tracing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import se.curity.identityserver.sdk.Nullable;
 import se.curity.identityserver.sdk.attribute.Attribute;
 import se.curity.identityserver.sdk.authentication.AuthenticationResult;
 import se.curity.identityserver.sdk.authentication.AuthenticatorRequestHandler;
@@ -27,32 +33,28 @@ import se.curity.identityserver.sdk.service.authentication.AuthenticatorInformat
 import se.curity.identityserver.sdk.web.Request;
 import se.curity.identityserver.sdk.web.Response;
 
-import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.UUID;
 
-import static io.curity.identityserver.plugin.github.authentication.RedirectUriUtil.createRedirectUri;
 import static se.curity.identityserver.sdk.http.RedirectStatusCode.MOVED_TEMPORARILY;
 
 public class GitHubAuthenticatorRequestHandler implements AuthenticatorRequestHandler<Request>
 {
     private static final Logger _logger = LoggerFactory.getLogger(GitHubAuthenticatorRequestHandler.class);
-    private static final String AUTHORIZATION_ENDPOINT = "https://github.com/login/oauth/authorize";
 
     private final GitHubAuthenticatorPluginConfig _config;
     private final ExceptionFactory _exceptionFactory;
     private final AuthenticatorInformationProvider _authenticatorInformationProvider;
+    private final LoginMetrics _metrics;
 
     public GitHubAuthenticatorRequestHandler(GitHubAuthenticatorPluginConfig config)
     {
         _config = config;
         _exceptionFactory = config.getExceptionFactory();
         _authenticatorInformationProvider = config.getAuthenticatorInformationProvider();
+        _metrics = LoginMetrics.of(config);
+
+        WarmUp.ensureStarted(config);
     }
 
     @Override
@@ -60,152 +62,41 @@ public class GitHubAuthenticatorRequestHandler implements AuthenticatorRequestHa
     {
         _logger.info("GET request received for authentication authentication");
 
-        String redirectUri = createRedirectUri(_authenticatorInformationProvider, _exceptionFactory);
-        String state = UUID.randomUUID().toString();
-        Map<String, Collection<String>> queryStringArguments = new LinkedHashMap<>(5);
-        Set<String> scopes = new LinkedHashSet<>(14);
-
-        _config.getSessionManager().put(Attribute.of("state", state));
-
-        addQueryString(queryStringArguments, "client_id", _config.getClientId());
-        addQueryString(queryStringArguments, "redirect_uri", redirectUri);
-        addQueryString(queryStringArguments, "state", state);
-        addQueryString(queryStringArguments, "response_type", "code");
-
-        manageScopes(scopes);
-
-        addQueryString(queryStringArguments, "scope", String.join(" ", scopes));
+        long start = System.nanoTime();
+        Trace trace = Tracing.begin(_config.id(), Phase.REDIRECT);
 
-        _logger.debug("Redirecting to {} with query string arguments {}", AUTHORIZATION_ENDPOINT,
-                queryStringArguments);
-
-        throw _exceptionFactory.redirectException(AUTHORIZATION_ENDPOINT, MOVED_TEMPORARILY,
-                queryStringArguments, false);
-    }
-
-    private void manageScopes(Set<String> scopes)
-    {
-        _config.getManageOrganization().ifPresent(manageOrganization ->
+        try
         {
-            switch (manageOrganization.getAccess())
+            AuthorizationRequestTemplates.Template template = AuthorizationRequestTemplates.get(_config,
+                    _authenticatorInformationProvider, _exceptionFactory);
+            String state;
+            @Nullable String sessionId = _config.getStateMode() == StateMode.SIGNED
+                    ? _config.getSessionManager().getSessionId()
+                    : null;
+
+            if (sessionId != null)
             {
-                case WRITE:
-                    scopes.add("write:org");
-                    break;
-                case READ_WRITE:
-                    scopes.add("admin:org");
-                case READ:
-                default:
-                    scopes.add("read:org");
-            }
-        });
-        _config.getManageRepo().ifPresent(manageRepo ->
-        {
-            if (manageRepo.isDeploymentStatusesAccess() && manageRepo.isPublicReposAccess()
-                    && manageRepo.isInviteAccess() && manageRepo.isReadWriteCommitStatus())
-            {
-                scopes.add("repo");
+                state = SignedState.of(_config).create(sessionId);
             }
             else
             {
-                if (manageRepo.isDeploymentStatusesAccess())
-                {
-                    scopes.add("repo_deployment");
-                }
-
-                if (manageRepo.isInviteAccess())
-                {
-                    scopes.add("repo:invite");
-                }
-
-                if (manageRepo.isPublicReposAccess())
-                {
-                    scopes.add("public_repo");
-                }
-
-                if (manageRepo.isReadWriteCommitStatus())
-                {
-                    scopes.add("repo:status");
-                }
-            }
-        });
-
-        switch (_config.getPublicKeysAccess())
-        {
-            case WRITE:
-                scopes.add("write:public_key");
-                break;
-            case READ_WRITE:
-                scopes.add("admin:public_key");
-                break;
-            case READ:
-                scopes.add("read:public_key");
-        }
-
-        switch (_config.getRepoHooksAccess())
-        {
-            case WRITE:
-                scopes.add("write:repo_hook");
-                break;
-            case READ_WRITE:
-                scopes.add("admin:repo_hook");
-                break;
-            case READ:
-                scopes.add("read:repo_hook");
-        }
+                // Also when a signed state can't be bound to the session, since it has no ID
+                state = StateGenerator.next();
 
-        if (_config.isOrganizationHooks())
-        {
-            scopes.add("admin:org_hook");
-        }
-
-        if (_config.isGistsAccess())
-        {
-            scopes.add("gist");
-        }
-
-        if (_config.isNotificationsAccess())
-        {
-            scopes.add("notifications");
-        }
-
-        _config.getManageUser().ifPresent(manageUser ->
-        {
-            if (manageUser.isEmailAccess() && manageUser.isFollowAccess())
-            {
-                scopes.add("user");
+                _config.getSessionManager().put(Attribute.of("state", state));
             }
-            else
-            {
-                scopes.add("read:user");
 
-                if (manageUser.isEmailAccess())
-                {
-                    scopes.add("user:email");
-                }
+            String authorizationRequestUrl = template.getAuthorizationRequestUrl(state);
 
-                if (manageUser.isFollowAccess())
-                {
-                    scopes.add("user:follow");
-                }
-            }
-        });
+            _logger.debug("Redirecting to {}", authorizationRequestUrl);
 
-        if (_config.isDeleteRepo())
-        {
-            scopes.add("delete_repo");
+            throw _exceptionFactory.redirectException(authorizationRequestUrl, MOVED_TEMPORARILY,
+                    Collections.emptyMap(), false);
         }
-
-        switch (_config.getGpgKeysAccess())
+        finally
         {
-            case WRITE:
-                scopes.add("write:gpg_key");
-                break;
-            case READ_WRITE:
-                scopes.add("admin:gpg_key");
-                break;
-            case READ:
-                scopes.add("read:gpg_key");
+            trace.finish();
+            _metrics.recordPhase(Phase.REDIRECT, start);
         }
     }
 
@@ -220,9 +111,4 @@ public class GitHubAuthenticatorRequestHandler implements AuthenticatorRequestHa
     {
         return request;
     }
-
-    private static void addQueryString(Map<String, Collection<String>> queryStringArguments, String key, Object value)
-    {
-        queryStringArguments.put(key, Collections.singleton(value.toString()));
-    }
 }
@@ -0,0 +1,186 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+/**
+ * The OAuth scopes of GitHub that this plugin can request.
+ *
+ * <p>The order of the constants is the order in which scopes are sent to GitHub. A scope is represented by the bit
+ * at its ordinal in a {@code long}, so a set of scopes is a mask; see {@link ScopeSet}.
+ */
+enum GitHubScope
+{
+    ADMIN_ORG("admin:org"),
+    WRITE_ORG("write:org"),
+    READ_ORG("read:org"),
+    REPO("repo"),
+    REPO_DEPLOYMENT("repo_deployment"),
+    REPO_INVITE("repo:invite"),
+    PUBLIC_REPO("public_repo"),
+    REPO_STATUS("repo:status"),
+    ADMIN_PUBLIC_KEY("admin:public_key"),
+    WRITE_PUBLIC_KEY("write:public_key"),
+    READ_PUBLIC_KEY("read:public_key"),
+    ADMIN_REPO_HOOK("admin:repo_hook"),
+    WRITE_REPO_HOOK("write:repo_hook"),
+    READ_REPO_HOOK("read:repo_hook"),
+    ADMIN_ORG_HOOK("admin:org_hook"),
+    GIST("gist"),
+    NOTIFICATIONS("notifications"),
+    USER("user"),
+    READ_USER("read:user"),
+    USER_EMAIL("user:email"),
+    USER_FOLLOW("user:follow"),
+    DELETE_REPO("delete_repo"),
+    ADMIN_GPG_KEY("admin:gpg_key"),
+    WRITE_GPG_KEY("write:gpg_key"),
+    READ_GPG_KEY("read:gpg_key");
+
+    private static final GitHubScope[] VALUES = values();
+    private static final long[] IMPLIED = new long[VALUES.length];
+
+    static
+    {
+        for (GitHubScope scope : VALUES)
+        {
+            IMPLIED[scope.ordinal()] = scope.bit();
+        }
+
+        // A broader scope grants everything that the narrower ones do, so GitHub may grant the broad one instead
+        implies(ADMIN_ORG, WRITE_ORG, READ_ORG);
+        implies(WRITE_ORG, READ_ORG);
+        implies(REPO, REPO_DEPLOYMENT, REPO_INVITE, PUBLIC_REPO, REPO_STATUS);
+        implies(ADMIN_PUBLIC_KEY, WRITE_PUBLIC_KEY, READ_PUBLIC_KEY);
+        implies(WRITE_PUBLIC_KEY, READ_PUBLIC_KEY);
+        implies(ADMIN_REPO_HOOK, WRITE_REPO_HOOK, READ_REPO_HOOK);
+        implies(WRITE_REPO_HOOK, READ_REPO_HOOK);
+        implies(USER, READ_USER, USER_EMAIL, USER_FOLLOW);
+        implies(ADMIN_GPG_KEY, WRITE_GPG_KEY, READ_GPG_KEY);
+        implies(WRITE_GPG_KEY, READ_GPG_KEY);
+    }
+
+    private final String _scope;
+
+    GitHubScope(String scope)
+    {
+        _scope = scope;
+    }
+
+    long bit()
+    {
+        return 1L << ordinal();
+    }
+
+    String getScope()
+    {
+        return _scope;
+    }
+
+    static GitHubScope valueAt(int ordinal)
+    {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Adds the scopes that are implied by the ones in the given mask, e.g., {@code repo} implies {@code public_repo}.
+     */
+    static long withImpliedScopes(long scopes)
+    {
+        long result = scopes;
+
+        for (long remaining = scopes; remaining != 0; remaining &= remaining - 1)
+        {
+            result |= IMPLIED[Long.numberOfTrailingZeros(remaining)];
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses a list of scopes, as sent by GitHub in the {@code scope} parameter of a token response, into a mask.
+     *
+     * <p>Scopes may be separated by commas, spaces or both. Scopes that are unknown to this plugin are ignored.
+     */
+    static long parse(CharSequence scopes)
+    {
+        long result = 0;
+        int length = scopes.length();
+        int start = 0;
+
+        while (start < length)
+        {
+            int end = start;
+
+            while (end < length && !isSeparator(scopes.charAt(end)))
+            {
+                end++;
+            }
+
+            if (end > start)
+            {
+                result |= bitOf(scopes, start, end);
+            }
+
+            start = end + 1;
+        }
+
+        return result;
+    }
+
+    private static boolean isSeparator(char c)
+    {
+        return c == ',' || c == ' ';
+    }
+
+    private static long bitOf(CharSequence scopes, int start, int end)
+    {
+        int length = end - start;
+
+        for (GitHubScope scope : VALUES)
+        {
+            String name = scope._scope;
+
+            if (name.length() == length && regionMatches(scopes, start, name))
+            {
+                return scope.bit();
+            }
+        }
+
+        return 0;
+    }
+
+    private static boolean regionMatches(CharSequence scopes, int start, String name)
+    {
+        for (int i = 0; i < name.length(); i++)
+        {
+            if (scopes.charAt(start + i) != name.charAt(i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void implies(GitHubScope scope, GitHubScope... impliedScopes)
+    {
+        for (GitHubScope impliedScope : impliedScopes)
+        {
+            IMPLIED[scope.ordinal()] |= impliedScope.bit();
+        }
+    }
+}
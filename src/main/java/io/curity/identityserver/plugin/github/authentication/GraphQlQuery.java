@@ -0,0 +1,272 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.client.JsonFields;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.MembershipCheck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.curity.identityserver.sdk.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The query of the GraphQL API of GitHub that fetches the user info and, if the membership check is
+ * AUTHENTICATED_USER, the membership of the user in the organization in a single request.
+ *
+ * <p>The query asks for exactly the fields of the user that become attributes, under the names that the REST API
+ * gives them, and the response is read with the same {@link JsonFields} as that of the REST API, so that the rest of
+ * the login can't tell which API they came from. Counts, which the GraphQL API gives as connections, are reduced to
+ * their totals. A MEMBERS membership check is left to the REST API, like with the REST user info, so that it uses
+ * the membership cache. The fields that the GraphQL API doesn't have, i.e., the URLs of the
+ * REST API, gravatar_id and the fields of the private profile, are left out. So are the verified email addresses of
+ * the user, which only the REST API provides.
+ */
+final class GraphQlQuery
+{
+    private static final Logger _logger = LoggerFactory.getLogger(GraphQlQuery.class);
+
+    // The selections of the GraphQL API that give the fields of the user in the REST API, by the names of the fields
+    private static final Map<String, String> SELECTIONS = new HashMap<>();
+    // The fields whose selections are connections, of which only the total count is used
+    private static final List<String> COUNTS = new ArrayList<>();
+    private static final JsonFields CONNECTION_FIELDS = JsonFields.of("totalCount");
+    private static final JsonFields ORGANIZATION_FIELDS = JsonFields.of("viewerIsAMember", "viewerCanAdminister");
+
+    static
+    {
+        SELECTIONS.put("login", "login");
+        SELECTIONS.put("id", "id: databaseId");
+        SELECTIONS.put("node_id", "node_id: id");
+        SELECTIONS.put("type", "type: __typename");
+        SELECTIONS.put("site_admin", "site_admin: isSiteAdmin");
+        SELECTIONS.put("name", "name");
+        SELECTIONS.put("company", "company");
+        SELECTIONS.put("blog", "blog: websiteUrl");
+        SELECTIONS.put("location", "location");
+        SELECTIONS.put("email", "email");
+        SELECTIONS.put("hireable", "hireable: isHireable");
+        SELECTIONS.put("bio", "bio");
+        SELECTIONS.put("twitter_username", "twitter_username: twitterUsername");
+        SELECTIONS.put("avatar_url", "avatar_url: avatarUrl");
+        SELECTIONS.put("html_url", "html_url: url");
+        SELECTIONS.put("public_repos", "public_repos: repositories(privacy: PUBLIC) { totalCount }");
+        SELECTIONS.put("public_gists", "public_gists: gists(privacy: PUBLIC) { totalCount }");
+        SELECTIONS.put("followers", "followers { totalCount }");
+        SELECTIONS.put("following", "following { totalCount }");
+        SELECTIONS.put("created_at", "created_at: createdAt");
+        SELECTIONS.put("updated_at", "updated_at: updatedAt");
+
+        COUNTS.add("public_repos");
+        COUNTS.add("public_gists");
+        COUNTS.add("followers");
+        COUNTS.add("following");
+    }
+
+    private final String _body;
+    private final JsonFields _responseFields;
+    // The organization whose membership the query asks for, if any
+    @Nullable
+    private final String _organizationName;
+    private final List<String> _counts = new ArrayList<>(COUNTS.size());
+
+    private GraphQlQuery(GitHubAuthenticatorPluginConfig config, UserInfoProjection userInfoProjection)
+    {
+        StringBuilder viewer = new StringBuilder(512);
+        List<String> userFields = new ArrayList<>();
+        List<String> unavailableFields = new ArrayList<>();
+
+        for (String field : userInfoProjection.getFieldNames())
+        {
+            @Nullable String selection = SELECTIONS.get(field);
+
+            if (selection == null)
+            {
+                unavailableFields.add(field);
+
+                continue;
+            }
+
+            viewer.append(' ').append(selection);
+
+            if (COUNTS.contains(field))
+            {
+                _counts.add(field);
+            }
+            else
+            {
+                userFields.add(field);
+            }
+        }
+
+        if (!unavailableFields.isEmpty())
+        {
+            _logger.info("The GraphQL API of GitHub doesn't provide the fields {} of the user, so the GitHub " +
+                    "authenticator {} leaves them out", unavailableFields, config.id());
+        }
+
+        _organizationName = config.getManageOrganization()
+                .filter(manageOrganization ->
+                        manageOrganization.getMembershipCheck() == MembershipCheck.AUTHENTICATED_USER)
+                .flatMap(GitHubAuthenticatorPluginConfig.ManageOrganization::getOrganizationName)
+                .orElse(null);
+
+        JsonFields viewerFields = JsonFields.of(userFields.toArray(new String[0]));
+
+        for (String field : _counts)
+        {
+            viewerFields = viewerFields.withObject(field, CONNECTION_FIELDS);
+        }
+
+        JsonFields dataFields = JsonFields.of().withObject("viewer", viewerFields);
+        Map<String, Object> body = new LinkedHashMap<>(4);
+
+        if (_organizationName == null)
+        {
+            body.put("query", "query { viewer {" + viewer + " } }");
+        }
+        else
+        {
+            dataFields = dataFields.withObject("organization", ORGANIZATION_FIELDS);
+
+            body.put("query", "query($organization: String!) { viewer {" + viewer + " } " +
+                    "organization(login: $organization) { viewerIsAMember viewerCanAdminister } }");
+            body.put("variables", Collections.singletonMap("organization", _organizationName));
+        }
+
+        _body = config.getJson().toJson(body);
+        _responseFields = JsonFields.of().withObject("data", dataFields);
+    }
+
+    static GraphQlQuery compile(GitHubAuthenticatorPluginConfig config)
+    {
+        return new GraphQlQuery(config, UserInfoProjection.compile(config));
+    }
+
+    /**
+     * @return the JSON document of the request
+     */
+    String getBody()
+    {
+        return _body;
+    }
+
+    /**
+     * Reads the result of the query.
+     *
+     * @param response the UTF-8 encoded response of the GraphQL API
+     * @throws IllegalArgumentException if the response is malformed or has no user info
+     */
+    Result read(byte[] response)
+    {
+        @Nullable Map<?, ?> data = (Map<?, ?>) _responseFields.read(response).get("data");
+        @Nullable Object viewer = data == null ? null : data.get("viewer");
+
+        if (viewer == null)
+        {
+            throw new IllegalArgumentException("No user info in the response");
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> userInfo = new HashMap<>((Map<String, Object>) viewer);
+
+        for (String field : _counts)
+        {
+            @Nullable Object connection = userInfo.remove(field);
+            @Nullable Object totalCount = connection == null ? null : ((Map<?, ?>) connection).get("totalCount");
+
+            if (totalCount != null)
+            {
+                userInfo.put(field, totalCount);
+            }
+        }
+
+        if ("".equals(userInfo.get("email")))
+        {
+            // The REST API has no email rather than an empty one
+            userInfo.remove("email");
+        }
+
+        if (_organizationName == null)
+        {
+            return new Result(userInfo, true, null);
+        }
+
+        // The organization is null if it doesn't exist or the user isn't allowed to see it
+        @Nullable Map<?, ?> organization = (Map<?, ?>) data.get("organization");
+        boolean isMember = organization != null && Boolean.TRUE.equals(organization.get("viewerIsAMember"));
+        @Nullable OrganizationMembership membership = null;
+
+        if (isMember)
+        {
+            // Only active members are members in the GraphQL API, whereas invitations are pending memberships
+            membership = new OrganizationMembership(
+                    Boolean.TRUE.equals(organization.get("viewerCanAdminister")) ? "admin" : "member",
+                    "active");
+        }
+
+        return new Result(userInfo, isMember, membership);
+    }
+
+    static final class Result
+    {
+        private final Map<String, Object> _userInfo;
+        private final boolean _member;
+        @Nullable
+        private final OrganizationMembership _membership;
+
+        private Result(Map<String, Object> userInfo, boolean member, @Nullable OrganizationMembership membership)
+        {
+            _userInfo = userInfo;
+            _member = member;
+            _membership = membership;
+        }
+
+        /**
+         * @return the user info, with the fields named as in the REST API
+         */
+        Map<String, Object> getUserInfo()
+        {
+            return _userInfo;
+        }
+
+        /**
+         * @return false if the membership check is AUTHENTICATED_USER and the user is not a member of the
+         * organization. A MEMBERS membership check is not made by the query.
+         */
+        boolean isMember()
+        {
+            return _member;
+        }
+
+        /**
+         * @return the membership of the user in the organization, if the membership check is AUTHENTICATED_USER and
+         * the user is a member
+         */
+        @Nullable
+        OrganizationMembership getMembership()
+        {
+            return _membership;
+        }
+    }
+}
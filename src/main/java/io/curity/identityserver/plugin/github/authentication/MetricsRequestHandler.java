@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.metrics.PrometheusExposition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.curity.identityserver.sdk.authentication.AuthenticationResult;
+import se.curity.identityserver.sdk.authentication.AuthenticatorRequestHandler;
+import se.curity.identityserver.sdk.errors.ErrorCode;
+import se.curity.identityserver.sdk.http.HttpStatus;
+import se.curity.identityserver.sdk.service.ExceptionFactory;
+import se.curity.identityserver.sdk.web.Request;
+import se.curity.identityserver.sdk.web.Response;
+
+import java.util.Optional;
+
+/**
+ * Serves the metrics of the authenticator in the text format of Prometheus, if this is enabled in the configuration.
+ * Like every endpoint of an authenticator, it doesn't authenticate its callers, so anyone who can reach the
+ * authenticator can read the metrics while it is enabled.
+ *
+ * <p>The metrics are written as they are rather than through a template, which would escape the quotes around the
+ * label values as HTML.
+ */
+public class MetricsRequestHandler implements AuthenticatorRequestHandler<Request>
+{
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final Logger _logger = LoggerFactory.getLogger(MetricsRequestHandler.class);
+
+    private final GitHubAuthenticatorPluginConfig _config;
+    private final ExceptionFactory _exceptionFactory;
+
+    public MetricsRequestHandler(GitHubAuthenticatorPluginConfig config)
+    {
+        _config = config;
+        _exceptionFactory = config.getExceptionFactory();
+
+        // Scraping the metrics also starts the warm-up, whose warm gauge they show
+        WarmUp.ensureStarted(config);
+    }
+
+    @Override
+    public Request preProcess(Request request, Response response)
+    {
+        if (!_config.isMetricsEndpointEnabled())
+        {
+            _logger.debug("Metrics were requested, but the metrics endpoint is not enabled");
+
+            throw _exceptionFactory.forbiddenException(ErrorCode.ACCESS_DENIED);
+        }
+
+        if (!request.isGetRequest())
+        {
+            throw _exceptionFactory.methodNotAllowed();
+        }
+
+        return request;
+    }
+
+    @Override
+    public Optional<AuthenticationResult> get(Request request, Response response)
+    {
+        response.setHttpStatus(HttpStatus.OK);
+        response.addHeader("Content-Type", CONTENT_TYPE);
+        response.setBody(PrometheusExposition.of(_config).render());
+
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<AuthenticationResult> post(Request request, Response response)
+    {
+        throw _exceptionFactory.methodNotAllowed();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+/**
+ * The membership of the authenticated user in an organization, as returned by GitHub's
+ * {@code /user/memberships/orgs/{org}} endpoint.
+ */
+final class OrganizationMembership
+{
+    private final String _role;
+    private final String _state;
+
+    OrganizationMembership(String role, String state)
+    {
+        _role = role;
+        _state = state;
+    }
+
+    /**
+     * @return the role of the user in the organization, i.e., admin or member
+     */
+    String getRole()
+    {
+        return _role;
+    }
+
+    /**
+     * @return the state of the membership, i.e., active, or pending if the user has not accepted the invitation yet
+     */
+    String getState()
+    {
+        return _state;
+    }
+
+    boolean isActive()
+    {
+        return "active".equals(_state);
+    }
+}
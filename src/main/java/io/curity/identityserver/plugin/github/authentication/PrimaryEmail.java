@@ -0,0 +1,85 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.client.JsonFields;
+import se.curity.identityserver.sdk.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The primary email address of a user, as read from the email addresses that GitHub has for the user, if it is
+ * verified.
+ */
+final class PrimaryEmail
+{
+    static final JsonFields FIELDS = JsonFields.of("email", "primary", "verified");
+
+    @Nullable
+    private final String _address;
+    @Nullable
+    private final String _eTag;
+
+    PrimaryEmail(@Nullable String address, @Nullable String eTag)
+    {
+        _address = address;
+        _eTag = eTag;
+    }
+
+    /**
+     * Picks the primary email address from the email addresses of a user.
+     *
+     * @param emails the email addresses, as read with {@link #FIELDS}
+     * @param eTag   the ETag of the response that they were read from
+     */
+    static PrimaryEmail of(List<Map<String, Object>> emails, @Nullable String eTag)
+    {
+        for (Map<String, Object> email : emails)
+        {
+            if (Boolean.TRUE.equals(email.get("primary")))
+            {
+                @Nullable Object address = email.get("email");
+
+                // Addresses that are not verified could belong to anyone
+                return new PrimaryEmail(Boolean.TRUE.equals(email.get("verified")) && address instanceof String
+                        ? (String) address
+                        : null, eTag);
+            }
+        }
+
+        return new PrimaryEmail(null, eTag);
+    }
+
+    /**
+     * @return the primary email address, or null if the user has none that is verified
+     */
+    @Nullable
+    String getAddress()
+    {
+        return _address;
+    }
+
+    /**
+     * @return the ETag that GitHub sent or confirmed this address with during the login, or null if it didn't
+     */
+    @Nullable
+    String getETag()
+    {
+        return _eTag;
+    }
+}
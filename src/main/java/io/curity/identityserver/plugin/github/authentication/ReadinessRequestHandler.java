@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.metrics.LoginMetrics;
+import se.curity.identityserver.sdk.authentication.AuthenticationResult;
+import se.curity.identityserver.sdk.authentication.AuthenticatorRequestHandler;
+import se.curity.identityserver.sdk.http.HttpStatus;
+import se.curity.identityserver.sdk.service.ExceptionFactory;
+import se.curity.identityserver.sdk.web.Request;
+import se.curity.identityserver.sdk.web.Response;
+
+import java.util.Optional;
+
+/**
+ * Tells a readiness probe whether the authenticator is ready for logins: it answers with 503 until the warm-up has
+ * finished, and with 200 after that or if the warm-up is not enabled. The first request starts the warm-up.
+ */
+public class ReadinessRequestHandler implements AuthenticatorRequestHandler<Request>
+{
+    static final String CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    private final GitHubAuthenticatorPluginConfig _config;
+    private final ExceptionFactory _exceptionFactory;
+
+    public ReadinessRequestHandler(GitHubAuthenticatorPluginConfig config)
+    {
+        _config = config;
+        _exceptionFactory = config.getExceptionFactory();
+
+        WarmUp.ensureStarted(config);
+    }
+
+    @Override
+    public Request preProcess(Request request, Response response)
+    {
+        if (!request.isGetRequest())
+        {
+            throw _exceptionFactory.methodNotAllowed();
+        }
+
+        return request;
+    }
+
+    @Override
+    public Optional<AuthenticationResult> get(Request request, Response response)
+    {
+        boolean ready = !_config.isWarmUp() || LoginMetrics.of(_config).isWarm();
+
+        response.setHttpStatus(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
+        response.addHeader("Content-Type", CONTENT_TYPE);
+        response.addHeader("Cache-Control", "no-store");
+        response.setBody(ready ? "ready\n" : "warming up\n");
+
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<AuthenticationResult> post(Request request, Response response)
+    {
+        throw _exceptionFactory.methodNotAllowed();
+    }
+}
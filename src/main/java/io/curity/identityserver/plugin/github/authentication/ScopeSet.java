@@ -0,0 +1,250 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.config.ConfigurationScoped;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.ADMIN_GPG_KEY;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.ADMIN_ORG;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.ADMIN_ORG_HOOK;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.ADMIN_PUBLIC_KEY;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.ADMIN_REPO_HOOK;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.DELETE_REPO;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.GIST;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.NOTIFICATIONS;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.PUBLIC_REPO;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.READ_GPG_KEY;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.READ_ORG;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.READ_PUBLIC_KEY;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.READ_REPO_HOOK;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.READ_USER;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.REPO;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.REPO_DEPLOYMENT;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.REPO_INVITE;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.REPO_STATUS;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.USER;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.USER_EMAIL;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.USER_FOLLOW;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.WRITE_GPG_KEY;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.WRITE_ORG;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.WRITE_PUBLIC_KEY;
+import static io.curity.identityserver.plugin.github.authentication.GitHubScope.WRITE_REPO_HOOK;
+
+/**
+ * An immutable set of GitHub scopes, held as a mask of {@link GitHubScope} bits together with the space-separated
+ * list of the scope names.
+ */
+final class ScopeSet
+{
+    static final ScopeSet EMPTY = new ScopeSet(0);
+
+    private static final ConfigurationScoped<ScopeSet> _requiredScopes = new ConfigurationScoped<>(ScopeSet::compile);
+
+    private final long _scopes;
+    private final String _scope;
+
+    private ScopeSet(long scopes)
+    {
+        _scopes = scopes;
+
+        StringBuilder scope = new StringBuilder();
+
+        for (long remaining = scopes; remaining != 0; remaining &= remaining - 1)
+        {
+            if (scope.length() > 0)
+            {
+                scope.append(' ');
+            }
+
+            scope.append(GitHubScope.valueAt(Long.numberOfTrailingZeros(remaining)).getScope());
+        }
+
+        _scope = scope.toString();
+    }
+
+    static ScopeSet of(long scopes)
+    {
+        return scopes == 0 ? EMPTY : new ScopeSet(scopes);
+    }
+
+    /**
+     * Gets the scopes that should be requested of GitHub according to the given configuration.
+     */
+    static ScopeSet requiredBy(GitHubAuthenticatorPluginConfig config)
+    {
+        return _requiredScopes.get(config);
+    }
+
+    static ScopeSet compile(GitHubAuthenticatorPluginConfig config)
+    {
+        long scopes = 0;
+
+        if (config.getManageOrganization().isPresent())
+        {
+            switch (config.getManageOrganization().get().getAccess())
+            {
+                case WRITE:
+                    scopes |= WRITE_ORG.bit();
+                    break;
+                case READ_WRITE:
+                    scopes |= ADMIN_ORG.bit();
+                case READ:
+                default:
+                    scopes |= READ_ORG.bit();
+            }
+        }
+
+        if (config.getManageRepo().isPresent())
+        {
+            GitHubAuthenticatorPluginConfig.ManageRepo manageRepo = config.getManageRepo().get();
+
+            if (manageRepo.isDeploymentStatusesAccess() && manageRepo.isPublicReposAccess()
+                    && manageRepo.isInviteAccess() && manageRepo.isReadWriteCommitStatus())
+            {
+                scopes |= REPO.bit();
+            }
+            else
+            {
+                if (manageRepo.isDeploymentStatusesAccess())
+                {
+                    scopes |= REPO_DEPLOYMENT.bit();
+                }
+
+                if (manageRepo.isInviteAccess())
+                {
+                    scopes |= REPO_INVITE.bit();
+                }
+
+                if (manageRepo.isPublicReposAccess())
+                {
+                    scopes |= PUBLIC_REPO.bit();
+                }
+
+                if (manageRepo.isReadWriteCommitStatus())
+                {
+                    scopes |= REPO_STATUS.bit();
+                }
+            }
+        }
+
+        scopes |= accessScope(config.getPublicKeysAccess(), READ_PUBLIC_KEY, WRITE_PUBLIC_KEY, ADMIN_PUBLIC_KEY);
+        scopes |= accessScope(config.getRepoHooksAccess(), READ_REPO_HOOK, WRITE_REPO_HOOK, ADMIN_REPO_HOOK);
+
+        if (config.isOrganizationHooks())
+        {
+            scopes |= ADMIN_ORG_HOOK.bit();
+        }
+
+        if (config.isGistsAccess())
+        {
+            scopes |= GIST.bit();
+        }
+
+        if (config.isNotificationsAccess())
+        {
+            scopes |= NOTIFICATIONS.bit();
+        }
+
+        if (config.getManageUser().isPresent())
+        {
+            GitHubAuthenticatorPluginConfig.ManageUser manageUser = config.getManageUser().get();
+
+            if (manageUser.isEmailAccess() && manageUser.isFollowAccess())
+            {
+                scopes |= USER.bit();
+            }
+            else
+            {
+                scopes |= READ_USER.bit();
+
+                if (manageUser.isEmailAccess())
+                {
+                    scopes |= USER_EMAIL.bit();
+                }
+
+                if (manageUser.isFollowAccess())
+                {
+                    scopes |= USER_FOLLOW.bit();
+                }
+            }
+        }
+
+        if (config.isDeleteRepo())
+        {
+            scopes |= DELETE_REPO.bit();
+        }
+
+        scopes |= accessScope(config.getGpgKeysAccess(), READ_GPG_KEY, WRITE_GPG_KEY, ADMIN_GPG_KEY);
+
+        return of(scopes);
+    }
+
+    private static long accessScope(GitHubAuthenticatorPluginConfig.Access access, GitHubScope read,
+                                    GitHubScope write, GitHubScope readWrite)
+    {
+        switch (access)
+        {
+            case WRITE:
+                return write.bit();
+            case READ_WRITE:
+                return readWrite.bit();
+            case READ:
+                return read.bit();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Gets the scopes of this set that are not covered by the given granted scopes, taking into account that a
+     * broad scope grants the narrower ones.
+     *
+     * @param grantedScopes the mask of the granted scopes, as returned by {@link GitHubScope#parse(CharSequence)}
+     * @return the missing scopes, or {@link #EMPTY} if all were granted
+     */
+    ScopeSet missingFrom(long grantedScopes)
+    {
+        long missingScopes = _scopes & ~GitHubScope.withImpliedScopes(grantedScopes);
+
+        return missingScopes == 0 ? EMPTY : of(missingScopes);
+    }
+
+    boolean contains(GitHubScope scope)
+    {
+        return (_scopes & scope.bit()) != 0;
+    }
+
+    boolean isEmpty()
+    {
+        return _scopes == 0;
+    }
+
+    long getScopes()
+    {
+        return _scopes;
+    }
+
+    /**
+     * @return the space-separated scope names, in the order in which they are sent to GitHub
+     */
+    @Override
+    public String toString()
+    {
+        return _scope;
+    }
+}
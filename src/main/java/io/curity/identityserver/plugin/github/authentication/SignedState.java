@@ -0,0 +1,223 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.cache.ReplayCache;
+import io.curity.identityserver.plugin.github.config.ConfigurationScoped;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.metrics.Jmx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.curity.identityserver.sdk.Nullable;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * States that are signed rather than kept in the session, when the state mode is
+ * {@link GitHubAuthenticatorPluginConfig.StateMode#SIGNED}.
+ *
+ * <p>A state is a random nonce and an expiry time, followed by a truncated HMAC-SHA256 of them and the ID of the
+ * session, all encoded as base64url. The key is derived from the client secret and the ID of the authenticator, so
+ * a state is only accepted by the authenticator that issued it. The states that have been used are remembered
+ * until they expire, so that each is only accepted once; when too many are remembered to take another one, the one
+ * that expires soonest is forgotten rather than rejecting every later login.
+ *
+ * <p>A state can only be bound to a session that has an ID. Without one, the handlers keep the state in the session
+ * instead, as in {@link GitHubAuthenticatorPluginConfig.StateMode#SESSION} mode, and the callback tells the two
+ * apart by their length.
+ */
+final class SignedState
+{
+    private static final Logger _logger = LoggerFactory.getLogger(SignedState.class);
+    private static final ConfigurationScoped<SignedState> _signedStates = new ConfigurationScoped<>(SignedState::new);
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int NONCE_BYTES = 16;
+    private static final int EXPIRY_BYTES = 4;
+    private static final int MAC_BYTES = 16;
+    private static final int SIGNED_BYTES = NONCE_BYTES + EXPIRY_BYTES;
+    private static final int STATE_BYTES = SIGNED_BYTES + MAC_BYTES;
+    private static final int ENCODED_STATE_LENGTH = (STATE_BYTES * 4 + 2) / 3;
+    private static final Base64.Encoder _encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder _decoder = Base64.getUrlDecoder();
+
+    private final SecretKeySpec _key;
+    private final Mac _mac;
+    private final long _timeToLiveSeconds;
+    private final ReplayCache<String> _usedStates;
+
+    private SignedState(GitHubAuthenticatorPluginConfig config)
+    {
+        try
+        {
+            Mac keyDerivation = Mac.getInstance(MAC_ALGORITHM);
+
+            keyDerivation.init(new SecretKeySpec(config.getClientSecret().getBytes(StandardCharsets.UTF_8),
+                    MAC_ALGORITHM));
+
+            byte[] key = keyDerivation.doFinal(("github-authenticator-state:" + config.id())
+                    .getBytes(StandardCharsets.UTF_8));
+
+            _key = new SecretKeySpec(key, MAC_ALGORITHM);
+            _mac = Mac.getInstance(MAC_ALGORITHM);
+            _mac.init(_key);
+        }
+        catch (GeneralSecurityException e)
+        {
+            throw new IllegalStateException(MAC_ALGORITHM + " is not supported", e);
+        }
+
+        _timeToLiveSeconds = config.getSignedStateTimeToLive();
+        _usedStates = new ReplayCache<>(config.getSignedStateReplayCacheSize());
+
+        Jmx.register("UsedStateCache", config.id(), _usedStates);
+    }
+
+    static SignedState of(GitHubAuthenticatorPluginConfig config)
+    {
+        return _signedStates.get(config);
+    }
+
+    /**
+     * Creates a state for a login in the given session.
+     */
+    String create(String sessionId)
+    {
+        ByteBuffer state = ByteBuffer.allocate(STATE_BYTES);
+
+        StateGenerator.nextBytes(state.array());
+        state.position(NONCE_BYTES);
+        state.putInt((int) (currentTimeSeconds() + _timeToLiveSeconds));
+        state.put(sign(state.array(), sessionId), 0, MAC_BYTES);
+
+        return _encoder.encodeToString(state.array());
+    }
+
+    /**
+     * @return true if the state has the length of a signed state, rather than that of a state that was kept in the
+     * session
+     */
+    static boolean isSignedForm(@Nullable String state)
+    {
+        return state != null && state.length() == ENCODED_STATE_LENGTH;
+    }
+
+    /**
+     * Checks that the state was created for the given session, has not expired and has not been used before, and
+     * marks it as used.
+     *
+     * @param sessionId the ID of the session, without which no state is valid
+     * @return true if the state is valid
+     */
+    boolean verify(@Nullable String state, @Nullable String sessionId)
+    {
+        if (sessionId == null)
+        {
+            _logger.debug("Session has no ID to check the state against");
+
+            return false;
+        }
+
+        byte[] decoded;
+
+        try
+        {
+            decoded = state == null ? null : _decoder.decode(state);
+        }
+        catch (IllegalArgumentException e)
+        {
+            decoded = null;
+        }
+
+        if (decoded == null || decoded.length != STATE_BYTES)
+        {
+            _logger.debug("State is not a signed state");
+
+            return false;
+        }
+
+        byte[] mac = Arrays.copyOf(sign(decoded, sessionId), MAC_BYTES);
+
+        if (!MessageDigest.isEqual(mac, Arrays.copyOfRange(decoded, SIGNED_BYTES, STATE_BYTES)))
+        {
+            _logger.debug("Signature of the state is not valid for the session");
+
+            return false;
+        }
+
+        long secondsLeft = Integer.toUnsignedLong(ByteBuffer.wrap(decoded).getInt(NONCE_BYTES)) -
+                currentTimeSeconds();
+
+        if (secondsLeft < 0)
+        {
+            _logger.debug("State has expired");
+
+            return false;
+        }
+
+        if (!_usedStates.use(state, TimeUnit.SECONDS.toMillis(secondsLeft + 1)))
+        {
+            _logger.debug("State has been used before");
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the MAC of the nonce and expiry time of the given state and of the session ID
+     */
+    private byte[] sign(byte[] state, String sessionId)
+    {
+        Mac mac;
+
+        try
+        {
+            // Cloning an initialized MAC is cheaper than looking it up and initializing it again
+            mac = (Mac) _mac.clone();
+        }
+        catch (CloneNotSupportedException e)
+        {
+            try
+            {
+                mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(_key);
+            }
+            catch (GeneralSecurityException e1)
+            {
+                throw new IllegalStateException(MAC_ALGORITHM + " is not supported", e1);
+            }
+        }
+
+        mac.update(state, 0, SIGNED_BYTES);
+
+        return mac.doFinal(sessionId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long currentTimeSeconds()
+    {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Generates the values of the state parameter of authorization requests.
+ *
+ * <p>A state is 128 random bits encoded as 22 characters of base64url. The bits are drawn from a number of
+ * {@link SecureRandom} instances that are picked by thread, so that concurrent logins rarely wait on the same
+ * instance. The instances are seeded once from the non-blocking source of the operating system, so that creating
+ * them doesn't wait for entropy.
+ */
+final class StateGenerator
+{
+    private static final int STATE_BYTES = 16;
+    private static final Base64.Encoder _encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final SecureRandom[] _stripes = createStripes();
+    private static final int _stripeMask = _stripes.length - 1;
+
+    private StateGenerator()
+    {
+    }
+
+    static String next()
+    {
+        byte[] state = new byte[STATE_BYTES];
+
+        nextBytes(state);
+
+        return _encoder.encodeToString(state);
+    }
+
+    /**
+     * Fills the given array with random bytes from the same sources as the states.
+     */
+    static void nextBytes(byte[] bytes)
+    {
+        _stripes[(int) Thread.currentThread().getId() & _stripeMask].nextBytes(bytes);
+    }
+
+    private static SecureRandom[] createStripes()
+    {
+        // A power of two of at least twice the number of processors, so that a stripe is picked with a mask
+        int count = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+        SecureRandom seedSource = createSeedSource();
+        SecureRandom[] stripes = new SecureRandom[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            byte[] seed = new byte[32];
+
+            seedSource.nextBytes(seed);
+
+            try
+            {
+                // Seeding SHA1PRNG before its first use replaces its own seeding, which may block
+                stripes[i] = SecureRandom.getInstance("SHA1PRNG");
+            }
+            catch (NoSuchAlgorithmException e)
+            {
+                stripes[i] = new SecureRandom();
+            }
+
+            stripes[i].setSeed(seed);
+        }
+
+        return stripes;
+    }
+
+    private static SecureRandom createSeedSource()
+    {
+        try
+        {
+            return SecureRandom.getInstance("NativePRNGNonBlocking");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // Windows has no NativePRNGNonBlocking, but its default source does not block either
+            return new SecureRandom();
+        }
+    }
+}
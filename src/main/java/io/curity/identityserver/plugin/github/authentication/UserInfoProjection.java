@@ -0,0 +1,155 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.client.JsonFields;
+import io.curity.identityserver.plugin.github.config.AttributeMapping;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields of the user info of GitHub that become subject and context attributes, and the names of those
+ * attributes, as configured.
+ *
+ * <p>The configuration is compiled once, so that only the fields that are used are read from the user info and a
+ * login just copies them to the attributes in a fixed order.
+ */
+final class UserInfoProjection
+{
+    // All the fields of the user that are not objects, as the attributes were before they could be configured
+    static final List<String> DEFAULT_SUBJECT_ATTRIBUTES = Arrays.asList("login", "id", "node_id", "avatar_url",
+            "gravatar_id", "url", "html_url", "followers_url", "following_url", "gists_url", "starred_url",
+            "subscriptions_url", "organizations_url", "repos_url", "events_url", "received_events_url", "type",
+            "user_view_type", "site_admin", "name", "company", "blog", "location", "email", "notification_email",
+            "hireable", "bio", "twitter_username", "public_repos", "public_gists", "followers", "following",
+            "created_at", "updated_at");
+    static final List<String> DEFAULT_CONTEXT_ATTRIBUTES = Arrays.asList("created_at", "updated_at",
+            "type=user_type");
+
+    private final JsonFields _fields;
+    private final Set<String> _fieldNames;
+    private final String[] _subjectFields;
+    private final String[] _subjectAttributeNames;
+    private final String[] _contextFields;
+    private final String[] _contextAttributeNames;
+
+    private UserInfoProjection(List<String> subjectAttributes, List<String> contextAttributes)
+    {
+        Set<String> fields = new LinkedHashSet<>();
+
+        // Always read, since the login is the subject and the ID identifies the user in caches
+        fields.add("login");
+        fields.add("id");
+
+        _subjectFields = new String[subjectAttributes.size()];
+        _subjectAttributeNames = new String[subjectAttributes.size()];
+        _contextFields = new String[contextAttributes.size()];
+        _contextAttributeNames = new String[contextAttributes.size()];
+
+        parse(subjectAttributes, _subjectFields, _subjectAttributeNames, fields);
+        parse(contextAttributes, _contextFields, _contextAttributeNames, fields);
+
+        _fields = JsonFields.of(fields.toArray(new String[0]));
+        _fieldNames = Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * @throws IllegalArgumentException if an attribute is not given as field or field=attribute, which is checked
+     *                                  when the configuration is loaded
+     */
+    static UserInfoProjection compile(GitHubAuthenticatorPluginConfig config)
+    {
+        return new UserInfoProjection(
+                orDefault(config.getSubjectAttributes(), DEFAULT_SUBJECT_ATTRIBUTES),
+                orDefault(config.getContextAttributes(), DEFAULT_CONTEXT_ATTRIBUTES));
+    }
+
+    private static List<String> orDefault(List<String> attributes, List<String> defaultAttributes)
+    {
+        return attributes == null || attributes.isEmpty() ? defaultAttributes : attributes;
+    }
+
+    private static void parse(List<String> attributes, String[] fieldNames, String[] attributeNames,
+                              Set<String> fields)
+    {
+        for (int i = 0; i < fieldNames.length; i++)
+        {
+            AttributeMapping mapping = AttributeMapping.parse(attributes.get(i));
+
+            fieldNames[i] = mapping.getField();
+            attributeNames[i] = mapping.getAttributeName();
+            fields.add(mapping.getField());
+        }
+    }
+
+    /**
+     * @return the fields to read from the user info
+     */
+    JsonFields getFields()
+    {
+        return _fields;
+    }
+
+    /**
+     * @return the names of the fields to read from the user info, in the order of the attributes
+     */
+    Set<String> getFieldNames()
+    {
+        return _fieldNames;
+    }
+
+    /**
+     * @return the values of the subject attributes that the user info has, by the names of the attributes
+     */
+    Map<String, Object> getSubjectAttributes(Map<String, Object> userInfo)
+    {
+        return project(userInfo, _subjectFields, _subjectAttributeNames);
+    }
+
+    /**
+     * @return the values of the context attributes that the user info has, by the names of the attributes
+     */
+    Map<String, Object> getContextAttributes(Map<String, Object> userInfo)
+    {
+        return project(userInfo, _contextFields, _contextAttributeNames);
+    }
+
+    private static Map<String, Object> project(Map<String, Object> userInfo, String[] fields,
+                                               String[] attributeNames)
+    {
+        Map<String, Object> attributes = new LinkedHashMap<>(fields.length * 4 / 3 + 1);
+
+        for (int i = 0; i < fields.length; i++)
+        {
+            Object value = userInfo.get(fields[i]);
+
+            if (value != null)
+            {
+                attributes.put(attributeNames[i], value);
+            }
+        }
+
+        return attributes;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.cache;
+
+import se.curity.identityserver.sdk.Nullable;
+
+/**
+ * A cache of parsed GitHub responses per user, together with the ETag that GitHub sent with them, for revalidation
+ * with conditional requests.
+ *
+ * <p>GitHub issues a new access token on every login, and which user a token belongs to is only known once GitHub
+ * has responded. Responses are therefore looked up by the user that is expected to log in, e.g., the one that last
+ * logged in with the same browser, and the ETag of that user's response is sent in an {@code If-None-Match} header.
+ * The ETags of GitHub are digests of the responses, so GitHub only answers 304 Not Modified if the token belongs to
+ * that user and the response is unchanged; if the guess was wrong, the full response is sent as usual.
+ *
+ * @param <V> the type of the parsed responses
+ */
+public final class ConditionalResponseCache<V>
+{
+    private final ExpiringCache<String, CachedResponse<V>> _responsesByUser;
+    private final long _timeToLiveMillis;
+
+    public ConditionalResponseCache(int maximumSize, long timeToLiveMillis)
+    {
+        _responsesByUser = new ExpiringCache<>(maximumSize);
+        _timeToLiveMillis = timeToLiveMillis;
+    }
+
+    /**
+     * @param user an identifier of the user that is expected, e.g., the user ID, or null if none is
+     * @return the response that was last fetched for the user, or null if there is none
+     */
+    @Nullable
+    public CachedResponse<V> get(@Nullable String user)
+    {
+        if (_timeToLiveMillis <= 0 || user == null)
+        {
+            return null;
+        }
+
+        return _responsesByUser.get(user);
+    }
+
+    /**
+     * Puts a response.
+     *
+     * @param user  an identifier of the user that the response is about, e.g., the user ID
+     * @param eTag  the ETag of the response
+     * @param value the parsed response, which must not be modified afterwards
+     */
+    public void put(String user, String eTag, V value)
+    {
+        if (_timeToLiveMillis > 0)
+        {
+            _responsesByUser.put(user, new CachedResponse<>(eTag, value), _timeToLiveMillis);
+        }
+    }
+
+    /**
+     * Keeps the given response for another time to live, e.g., after GitHub confirmed that it is still current.
+     */
+    public void refresh(String user, CachedResponse<V> response)
+    {
+        put(user, response.getETag(), response.getValue());
+    }
+
+    /**
+     * @return the statistics of the responses in the cache
+     */
+    public ExpiringCacheMXBean getStatistics()
+    {
+        return _responsesByUser;
+    }
+
+    public static final class CachedResponse<V>
+    {
+        private final String _eTag;
+        private final V _value;
+
+        private CachedResponse(String eTag, V value)
+        {
+            _eTag = eTag;
+            _value = value;
+        }
+
+        public String getETag()
+        {
+            return _eTag;
+        }
+
+        public V getValue()
+        {
+            return _value;
+        }
+    }
+}
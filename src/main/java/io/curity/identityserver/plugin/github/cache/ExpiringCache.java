@@ -0,0 +1,304 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.cache;
+
+import se.curity.identityserver.sdk.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache where each entry expires after its own time to live.
+ *
+ * <p>The cache is split into stripes by the hash of the key, each with its own lock, so that concurrent logins
+ * rarely contend. Within a stripe, entries are evicted with a segmented LRU policy: new entries start out on
+ * probation and are promoted to the protected segment when they are read again. Entries that are only used once are
+ * therefore evicted before those of users that log in often.
+ *
+ * <p>Expired entries are not returned by {@link #get(Object)}, but they are kept until they are evicted or replaced,
+ * so that {@link #getStale(Object, long)} can still return them.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class ExpiringCache<K, V> implements ExpiringCacheMXBean
+{
+    private static final int MAX_STRIPES = 16;
+    private static final int MIN_ENTRIES_PER_STRIPE = 8;
+
+    private final Stripe<K, V>[] _stripes;
+    private final int _stripeMask;
+    private final int _maximumSize;
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public ExpiringCache(int maximumSize)
+    {
+        int stripeCount = 1;
+
+        while (stripeCount < MAX_STRIPES && maximumSize / (stripeCount * 2) >= MIN_ENTRIES_PER_STRIPE)
+        {
+            stripeCount *= 2;
+        }
+
+        int stripeSize = Math.max(1, (maximumSize + stripeCount - 1) / stripeCount);
+
+        _stripes = new Stripe[stripeCount];
+        _stripeMask = stripeCount - 1;
+        _maximumSize = maximumSize;
+
+        for (int i = 0; i < stripeCount; i++)
+        {
+            _stripes[i] = new Stripe<>(stripeSize, _evictions);
+        }
+    }
+
+    /**
+     * @return the value of the key, or null if there is none or it has expired
+     */
+    @Nullable
+    public V get(K key)
+    {
+        @Nullable V value = stripeOf(key).get(key, System.nanoTime(), 0);
+
+        (value == null ? _misses : _hits).increment();
+
+        return value;
+    }
+
+    /**
+     * Gets the value of the key even if it has expired, as long as it did so at most the given time ago.
+     *
+     * <p>This is a fallback for when {@link #get(Object)} missed, which already counted the lookup as a miss, so it is
+     * not counted again.
+     *
+     * @return the value of the key, or null if there is none or it expired longer ago than allowed
+     */
+    @Nullable
+    public V getStale(K key, long maximumStalenessMillis)
+    {
+        return stripeOf(key).get(key, System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(maximumStalenessMillis));
+    }
+
+    /**
+     * Puts a value that expires after the given time. Nothing is cached if the time is not positive.
+     */
+    public void put(K key, V value, long timeToLiveMillis)
+    {
+        if (timeToLiveMillis > 0)
+        {
+            stripeOf(key).put(key, value, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis));
+        }
+    }
+
+    /**
+     * Puts a value that expires after the given time, unless the key has a value that has not expired yet.
+     *
+     * @return true if the value was put
+     */
+    public boolean putIfAbsent(K key, V value, long timeToLiveMillis)
+    {
+        long now = System.nanoTime();
+
+        return stripeOf(key).putIfAbsent(key, value, now, now + TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis));
+    }
+
+    public void remove(K key)
+    {
+        stripeOf(key).remove(key);
+    }
+
+    private Stripe<K, V> stripeOf(K key)
+    {
+        int hash = key.hashCode();
+
+        return _stripes[(hash ^ (hash >>> 16)) & _stripeMask];
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return _hits.sum();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return _misses.sum();
+    }
+
+    @Override
+    public long getEvictionCount()
+    {
+        return _evictions.sum();
+    }
+
+    @Override
+    public int getSize()
+    {
+        int size = 0;
+
+        for (Stripe<K, V> stripe : _stripes)
+        {
+            size += stripe.size();
+        }
+
+        return size;
+    }
+
+    @Override
+    public int getMaximumSize()
+    {
+        return _maximumSize;
+    }
+
+    private static final class Entry<V>
+    {
+        private final V _value;
+        private final long _expiresAt;
+
+        private Entry(V value, long expiresAt)
+        {
+            _value = value;
+            _expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Stripe<K, V>
+    {
+        private final int _capacity;
+        private final int _protectedCapacity;
+        private final LongAdder _evictions;
+
+        // Both segments are in access order, so their first entry is the least recently used one
+        private final LinkedHashMap<K, Entry<V>> _probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, Entry<V>> _protected = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Stripe(int capacity, LongAdder evictions)
+        {
+            _capacity = capacity;
+            _protectedCapacity = Math.max(1, capacity * 4 / 5);
+            _evictions = evictions;
+        }
+
+        @Nullable
+        synchronized V get(K key, long now, long maximumStaleness)
+        {
+            Entry<V> entry = _protected.get(key);
+
+            if (entry == null)
+            {
+                entry = _probation.get(key);
+
+                if (entry == null || now - entry._expiresAt >= maximumStaleness)
+                {
+                    return null;
+                }
+
+                _probation.remove(key);
+                promote(key, entry);
+
+                return entry._value;
+            }
+
+            return now - entry._expiresAt < maximumStaleness ? entry._value : null;
+        }
+
+        synchronized void put(K key, V value, long expiresAt)
+        {
+            Entry<V> entry = new Entry<>(value, expiresAt);
+
+            if (_protected.containsKey(key))
+            {
+                _protected.put(key, entry);
+            }
+            else
+            {
+                _probation.put(key, entry);
+                evictIfFull();
+            }
+        }
+
+        synchronized boolean putIfAbsent(K key, V value, long now, long expiresAt)
+        {
+            Entry<V> entry = _protected.get(key);
+
+            if (entry == null)
+            {
+                entry = _probation.get(key);
+            }
+
+            if (entry != null && now - entry._expiresAt < 0)
+            {
+                return false;
+            }
+
+            put(key, value, expiresAt);
+
+            return true;
+        }
+
+        synchronized void remove(K key)
+        {
+            if (_protected.remove(key) == null)
+            {
+                _probation.remove(key);
+            }
+        }
+
+        synchronized int size()
+        {
+            return _probation.size() + _protected.size();
+        }
+
+        private void promote(K key, Entry<V> entry)
+        {
+            _protected.put(key, entry);
+
+            if (_protected.size() > _protectedCapacity)
+            {
+                // Demote the least recently used protected entry, giving it another chance on probation
+                Iterator<Map.Entry<K, Entry<V>>> eldest = _protected.entrySet().iterator();
+                Map.Entry<K, Entry<V>> demoted = eldest.next();
+
+                eldest.remove();
+                _probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+
+        /**
+         * Evicts the least recently used entries on probation, but never the one that was just put, which is the
+         * most recently used one. If that is the only one left on probation, protected entries are evicted instead.
+         */
+        private void evictIfFull()
+        {
+            while (_probation.size() + _protected.size() > _capacity)
+            {
+                Iterator<K> eldest = (_probation.size() > 1 ? _probation : _protected).keySet().iterator();
+
+                eldest.next();
+                eldest.remove();
+                _evictions.increment();
+            }
+        }
+    }
+}
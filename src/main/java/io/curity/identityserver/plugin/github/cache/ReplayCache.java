@@ -0,0 +1,132 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers keys that have been used until they expire, so that each is only accepted once, e.g., the states of
+ * logins.
+ *
+ * <p>When it is full of keys that have not expired, the key that expires soonest is forgotten to make room for a new
+ * one, and could then be accepted again for the rest of its time to live. New keys are never refused, so that a
+ * flood of used keys can't make every later one fail; the evictions are counted to tell that the cache is too small
+ * for the keys that are used within their time to live.
+ *
+ * @param <K> the type of the keys
+ */
+public final class ReplayCache<K> implements ReplayCacheMXBean
+{
+    private final int _maximumSize;
+    private final LongAdder _evictions = new LongAdder();
+
+    // Guarded by _expiryByKey; each key that is remembered has exactly one entry in the queue
+    private final Map<K, Long> _expiryByKey = new HashMap<>();
+    private final PriorityQueue<Expiry<K>> _expiries = new PriorityQueue<>();
+
+    public ReplayCache(int maximumSize)
+    {
+        _maximumSize = maximumSize;
+    }
+
+    /**
+     * Marks a key as used until it expires, unless it has been used before.
+     *
+     * @return true if the key had not been used, or if its use has expired
+     */
+    public boolean use(K key, long timeToLiveMillis)
+    {
+        long now = System.nanoTime();
+
+        synchronized (_expiryByKey)
+        {
+            Long expiresAt = _expiryByKey.get(key);
+
+            if (expiresAt != null && now - expiresAt < 0)
+            {
+                return false;
+            }
+
+            // Removes the key too if its use has expired, so that it gets a new entry in the queue below
+            removeExpired(now);
+
+            while (!_expiries.isEmpty() && _expiryByKey.size() >= _maximumSize)
+            {
+                _expiryByKey.remove(_expiries.poll()._key);
+                _evictions.increment();
+            }
+
+            long newExpiresAt = now + TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+
+            _expiryByKey.put(key, newExpiresAt);
+            _expiries.add(new Expiry<>(key, newExpiresAt));
+
+            return true;
+        }
+    }
+
+    private void removeExpired(long now)
+    {
+        while (!_expiries.isEmpty() && now - _expiries.peek()._expiresAt >= 0)
+        {
+            _expiryByKey.remove(_expiries.poll()._key);
+        }
+    }
+
+    @Override
+    public int getSize()
+    {
+        synchronized (_expiryByKey)
+        {
+            return _expiryByKey.size();
+        }
+    }
+
+    @Override
+    public int getMaximumSize()
+    {
+        return _maximumSize;
+    }
+
+    @Override
+    public long getEvictionCount()
+    {
+        return _evictions.sum();
+    }
+
+    private static final class Expiry<K> implements Comparable<Expiry<K>>
+    {
+        private final K _key;
+        private final long _expiresAt;
+
+        private Expiry(K key, long expiresAt)
+        {
+            _key = key;
+            _expiresAt = expiresAt;
+        }
+
+        @Override
+        public int compareTo(Expiry<K> other)
+        {
+            return Long.signum(_expiresAt - other._expiresAt);
+        }
+    }
+}
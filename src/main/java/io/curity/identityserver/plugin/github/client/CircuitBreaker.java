@@ -0,0 +1,230 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A circuit breaker for the calls to one GitHub endpoint.
+ *
+ * <p>The outcome of the most recent calls is kept in a sliding window. When too many of them failed or were slow,
+ * the breaker opens and calls are rejected without being made, so that logins fail right away rather than holding
+ * request threads while GitHub is struggling. Once the open duration has passed, the breaker lets a few probe calls
+ * through; if they all succeed in time, it closes again, otherwise it opens for another period.
+ */
+public final class CircuitBreaker
+{
+    private static final Logger _logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    public enum State
+    {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final GitHubEndpoint _endpoint;
+    private final byte[] _window;
+    private final int _minimumCalls;
+    private final int _failureRateThreshold;
+    private final int _slowCallRateThreshold;
+    private final long _slowCallNanos;
+    private final long _openMillis;
+    private final int _probeCalls;
+    private final LongAdder _rejectedCalls = new LongAdder();
+
+    // Guarded by this, except that the state and end of the open period are read without locking on the fast path
+    private volatile State _state = State.CLOSED;
+    private volatile long _openUntil;
+    private int _next;
+    private int _calls;
+    private int _failures;
+    private int _slowCalls;
+    private int _probesStarted;
+    private int _probesSucceeded;
+
+    /**
+     * @param windowSize            the number of most recent calls that the decision to open is based on
+     * @param minimumCalls          the number of calls that must have been made before the breaker can open
+     * @param failureRateThreshold  the percentage of failed calls that opens the breaker
+     * @param slowCallRateThreshold the percentage of slow calls that opens the breaker
+     * @param slowCallMillis        the number of milliseconds after which a call is considered slow
+     * @param openMillis            the number of milliseconds that the breaker stays open
+     * @param probeCalls            the number of calls that must succeed for the breaker to close again
+     */
+    CircuitBreaker(GitHubEndpoint endpoint, int windowSize, int minimumCalls, int failureRateThreshold,
+                   int slowCallRateThreshold, long slowCallMillis, long openMillis, int probeCalls)
+    {
+        _endpoint = endpoint;
+        _window = new byte[windowSize];
+        _minimumCalls = Math.max(1, Math.min(minimumCalls, windowSize));
+        _failureRateThreshold = failureRateThreshold;
+        _slowCallRateThreshold = slowCallRateThreshold;
+        _slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        _openMillis = openMillis;
+        _probeCalls = Math.max(1, probeCalls);
+    }
+
+    /**
+     * Asks for permission to make a call. A call that is permitted must be followed by a call to
+     * {@link #record(long, boolean)}.
+     *
+     * @return true if the call may be made
+     */
+    boolean tryAcquirePermission()
+    {
+        if (_state == State.CLOSED)
+        {
+            return true;
+        }
+
+        synchronized (this)
+        {
+            if (_state == State.OPEN)
+            {
+                if (System.currentTimeMillis() < _openUntil)
+                {
+                    _rejectedCalls.increment();
+
+                    return false;
+                }
+
+                _logger.info("Probing whether the {} endpoint of GitHub has recovered", _endpoint.getLabel());
+
+                _state = State.HALF_OPEN;
+                _probesStarted = 0;
+                _probesSucceeded = 0;
+            }
+
+            if (_state == State.HALF_OPEN)
+            {
+                if (_probesStarted < _probeCalls)
+                {
+                    _probesStarted++;
+
+                    return true;
+                }
+
+                _rejectedCalls.increment();
+
+                return false;
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param elapsedNanos the time that the call took
+     * @param failed       whether the call failed, i.e., did not get a response or got a server error
+     */
+    synchronized void record(long elapsedNanos, boolean failed)
+    {
+        boolean slow = elapsedNanos >= _slowCallNanos;
+
+        switch (_state)
+        {
+            case CLOSED:
+                byte evicted = _window[_next];
+                byte outcome = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+
+                _window[_next] = outcome;
+                _next = (_next + 1) % _window.length;
+
+                if (_calls < _window.length)
+                {
+                    _calls++;
+                }
+                else
+                {
+                    _failures -= evicted & FAILED;
+                    _slowCalls -= (evicted & SLOW) >> 1;
+                }
+
+                _failures += outcome & FAILED;
+                _slowCalls += (outcome & SLOW) >> 1;
+
+                if (_calls >= _minimumCalls && (_failures * 100 >= _failureRateThreshold * _calls ||
+                        _slowCalls * 100 >= _slowCallRateThreshold * _calls))
+                {
+                    _logger.warn("Calls to the {} endpoint of GitHub are failing or slow ({} failed and {} slow out " +
+                                    "of {}). No more calls will be made for {} ms", _endpoint.getLabel(), _failures,
+                            _slowCalls, _calls, _openMillis);
+
+                    open();
+                }
+
+                break;
+            case HALF_OPEN:
+                if (failed || slow)
+                {
+                    _logger.info("The {} endpoint of GitHub has not recovered", _endpoint.getLabel());
+
+                    open();
+                }
+                else if (++_probesSucceeded >= _probeCalls)
+                {
+                    _logger.info("The {} endpoint of GitHub has recovered", _endpoint.getLabel());
+
+                    _state = State.CLOSED;
+                }
+
+                break;
+            case OPEN:
+                // A call that was made before the breaker opened; it doesn't tell anything new
+                break;
+        }
+    }
+
+    private void open()
+    {
+        _openUntil = System.currentTimeMillis() + _openMillis;
+        _state = State.OPEN;
+        _next = 0;
+        _calls = 0;
+        _failures = 0;
+        _slowCalls = 0;
+    }
+
+    /**
+     * @return the number of milliseconds until the breaker lets probe calls through, or 0 if it does now
+     */
+    long getRetryAfterMillis()
+    {
+        return Math.max(0, _openUntil - System.currentTimeMillis());
+    }
+
+    public State getState()
+    {
+        return _state;
+    }
+
+    /**
+     * @return the number of calls that were rejected while the breaker was open
+     */
+    public long getRejectedCalls()
+    {
+        return _rejectedCalls.sum();
+    }
+}
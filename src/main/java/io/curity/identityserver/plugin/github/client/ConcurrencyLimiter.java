@@ -0,0 +1,185 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how many calls to GitHub are made at once, learning the limit from how fast GitHub answers.
+ *
+ * <p>The limit starts out at the maximum, so that the logins that come in right after a restart are not rejected
+ * before anything is known about GitHub. From there, it is adjusted like the congestion window of TCP (additive
+ * increase, multiplicative decrease): it grows by about one for each round of calls that are answered in time while
+ * the limit is being used, and is cut by a tenth when a call fails or takes more than twice as long as calls to the
+ * same endpoint usually do. It is only cut while the limit is being used, since a slow call when few are under way
+ * says nothing about the load, and never below a minimum, so that a few slow calls can't starve the logins. Calls
+ * over the limit are rejected right away, so that a slowdown of GitHub doesn't pile up request threads and
+ * connections.
+ */
+public final class ConcurrencyLimiter implements ConcurrencyLimiterMXBean
+{
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    // The baseline is a moving average of the latencies that weighs the last hundred or so calls, so it follows a
+    // lasting change of the latency of GitHub, but not the jitter of single calls
+    private static final double BASELINE_WEIGHT = 0.01;
+    private static final int LOWEST_MINIMUM_LIMIT = 3;
+
+    private final int _minimumLimit;
+    private final int _maximumLimit;
+    private final AtomicInteger _inFlight = new AtomicInteger();
+    private final LongAdder _rejectedCalls = new LongAdder();
+
+    // Guarded by this; the limit is also read without locking when acquiring
+    private volatile double _limit;
+    private final double[] _baselineNanos = new double[GitHubEndpoint.values().length];
+    private long _lastDecrease;
+
+    /**
+     * @param minimumLimit the limit that the calls are never held to less than, which is raised to 3 if it is lower
+     * @param maximumLimit the limit that the calls are never allowed more than, which is raised to the minimum
+     */
+    ConcurrencyLimiter(int minimumLimit, int maximumLimit)
+    {
+        _minimumLimit = Math.max(LOWEST_MINIMUM_LIMIT, minimumLimit);
+        _maximumLimit = Math.max(_minimumLimit, maximumLimit);
+        _limit = _maximumLimit;
+    }
+
+    /**
+     * Asks for permission to make a call. A call that is permitted must be followed by a call to
+     * {@link #release(GitHubEndpoint, long, boolean)} or {@link #cancel()}.
+     *
+     * @return true if the call may be made
+     */
+    boolean tryAcquire()
+    {
+        while (true)
+        {
+            int inFlight = _inFlight.get();
+
+            if (inFlight >= (int) _limit)
+            {
+                _rejectedCalls.increment();
+
+                return false;
+            }
+
+            if (_inFlight.compareAndSet(inFlight, inFlight + 1))
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a permission without making the call.
+     */
+    void cancel()
+    {
+        _inFlight.decrementAndGet();
+    }
+
+    /**
+     * Gives back the permission of a call that was made and adjusts the limit to how it went.
+     *
+     * @param endpoint     the endpoint that was called
+     * @param elapsedNanos the time that the call took
+     * @param failed       whether the call failed, i.e., did not get a response or got a server error
+     */
+    void release(GitHubEndpoint endpoint, long elapsedNanos, boolean failed)
+    {
+        int inFlight = _inFlight.getAndDecrement();
+
+        synchronized (this)
+        {
+            int i = endpoint.ordinal();
+            double baselineNanos = _baselineNanos[i];
+            boolean nearLimit = inFlight * 2 >= _limit;
+
+            if (!failed)
+            {
+                _baselineNanos[i] = baselineNanos == 0
+                        ? elapsedNanos
+                        : baselineNanos + (elapsedNanos - baselineNanos) * BASELINE_WEIGHT;
+            }
+
+            if (failed || (baselineNanos > 0 && elapsedNanos > baselineNanos * LATENCY_TOLERANCE))
+            {
+                long now = System.nanoTime();
+
+                // Calls that were already under way when the limit was cut say nothing about the new limit
+                if (nearLimit && now - _lastDecrease >= elapsedNanos)
+                {
+                    _limit = Math.max(_minimumLimit, _limit * BACKOFF_RATIO);
+                    _lastDecrease = now;
+                }
+            }
+            else if (nearLimit)
+            {
+                _limit = Math.min(_maximumLimit, _limit + 1 / _limit);
+            }
+        }
+    }
+
+    @Override
+    public int getLimit()
+    {
+        return (int) _limit;
+    }
+
+    @Override
+    public int getMinimumLimit()
+    {
+        return _minimumLimit;
+    }
+
+    @Override
+    public int getMaximumLimit()
+    {
+        return _maximumLimit;
+    }
+
+    @Override
+    public int getInFlight()
+    {
+        return _inFlight.get();
+    }
+
+    @Override
+    public long getRejectedCalls()
+    {
+        return _rejectedCalls.sum();
+    }
+
+    /**
+     * @return the time that calls to the endpoint usually take, in milliseconds, or -1 if unknown
+     */
+    public long getBaselineMillis(GitHubEndpoint endpoint)
+    {
+        double baselineNanos;
+
+        synchronized (this)
+        {
+            baselineNanos = _baselineNanos[endpoint.ordinal()];
+        }
+
+        return baselineNanos == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis((long) baselineNanos);
+    }
+}
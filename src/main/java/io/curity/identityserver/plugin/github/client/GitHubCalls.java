@@ -0,0 +1,581 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import io.curity.identityserver.plugin.github.config.ConfigurationScoped;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.metrics.Jmx;
+import io.curity.identityserver.plugin.github.metrics.LatencyHistogram;
+import io.curity.identityserver.plugin.github.metrics.Trace;
+import io.curity.identityserver.plugin.github.metrics.Tracing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.curity.identityserver.sdk.Nullable;
+import se.curity.identityserver.sdk.errors.ErrorCode;
+import se.curity.identityserver.sdk.service.ExceptionFactory;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Makes the calls of an authenticator instance to GitHub, keeping track of how GitHub is doing so that calls that
+ * are bound to fail are not made at all.
+ */
+public final class GitHubCalls
+{
+    private static final Logger _logger = LoggerFactory.getLogger(GitHubCalls.class);
+    private static final ConfigurationScoped<GitHubCalls> _callsByConfiguration =
+            new ConfigurationScoped<>(GitHubCalls::new);
+    private static final long RETRY_BASE_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long RETRY_MAX_DELAY_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final int MAXIMUM_SAVED_RETRIES = 10;
+
+    private final ExceptionFactory _exceptionFactory;
+    private final RateLimitTracker _rateLimitTracker;
+    private final Map<GitHubEndpoint, CircuitBreaker> _circuitBreakers = new EnumMap<>(GitHubEndpoint.class);
+    @Nullable
+    private final ConcurrencyLimiter _concurrencyLimiter;
+    @Nullable
+    private final HedgingPolicy _hedgingPolicy;
+    private final int _connectRetries;
+    private final long _loginTimeBudgetNanos;
+    private final int _maxRetries;
+    private final RequestBudget _retryBudget;
+    private final LatencyHistogram[] _latencies = new LatencyHistogram[GitHubEndpoint.values().length];
+    private final AtomicInteger _inFlight = new AtomicInteger();
+    private final String _authenticatorId;
+
+    private GitHubCalls(GitHubAuthenticatorPluginConfig config)
+    {
+        _exceptionFactory = config.getExceptionFactory();
+        _authenticatorId = config.id();
+        _rateLimitTracker = new RateLimitTracker(config.getRateLimitReserve());
+
+        if (config.getMaxConcurrentCalls() > 0)
+        {
+            _concurrencyLimiter = new ConcurrencyLimiter(config.getMinConcurrentCalls(),
+                    config.getMaxConcurrentCalls());
+
+            Jmx.register("ConcurrencyLimiter", config.id(), _concurrencyLimiter);
+        }
+        else
+        {
+            _concurrencyLimiter = null;
+        }
+
+        if (config.isHedgeUserInfoRequests())
+        {
+            _hedgingPolicy = new HedgingPolicy(config.getHedgePercentile(), config.getHedgeBudget());
+
+            Jmx.register("HedgingPolicy", config.id(), _hedgingPolicy);
+        }
+        else
+        {
+            _hedgingPolicy = null;
+        }
+
+        _connectRetries = config.getTokenConnectRetries();
+        _loginTimeBudgetNanos = TimeUnit.SECONDS.toNanos(config.getLoginTimeBudget());
+        _maxRetries = config.getMaxRetries();
+        _retryBudget = new RequestBudget(config.getRetryBudget(), MAXIMUM_SAVED_RETRIES);
+
+        for (int i = 0; i < _latencies.length; i++)
+        {
+            _latencies[i] = new LatencyHistogram();
+        }
+
+        if (config.getCircuitBreakerWindowSize() > 0)
+        {
+            for (GitHubEndpoint endpoint : GitHubEndpoint.values())
+            {
+                _circuitBreakers.put(endpoint, new CircuitBreaker(endpoint, config.getCircuitBreakerWindowSize(),
+                        config.getCircuitBreakerMinimumCalls(), config.getCircuitBreakerFailureRateThreshold(),
+                        config.getCircuitBreakerSlowCallRateThreshold(), config.getCircuitBreakerSlowCallDuration(),
+                        TimeUnit.SECONDS.toMillis(config.getCircuitBreakerOpenDuration()),
+                        config.getCircuitBreakerProbeCalls()));
+            }
+        }
+    }
+
+    public static GitHubCalls of(GitHubAuthenticatorPluginConfig config)
+    {
+        return _callsByConfiguration.get(config);
+    }
+
+    /**
+     * Makes a call to GitHub.
+     *
+     * @param endpoint the endpoint that is called
+     * @param userId   the ID of the user whose rate limit the call counts against, or null if it is not known
+     * @param call     the call, which returns the response of GitHub
+     * @return the response of GitHub
+     */
+    public GitHubResponse execute(GitHubEndpoint endpoint, @Nullable String userId, Supplier<GitHubResponse> call)
+    {
+        long retryAfter = _rateLimitTracker.getRetryAfterMillis(endpoint, userId);
+
+        if (retryAfter > 0)
+        {
+            _logger.debug("Not calling the {} endpoint because of a rate limit of GitHub", endpoint.getLabel());
+
+            throw unavailable("The rate limit of GitHub has been exceeded", retryAfter);
+        }
+
+        if (_concurrencyLimiter != null && !_concurrencyLimiter.tryAcquire())
+        {
+            _logger.debug("Not calling the {} endpoint because {} calls to GitHub are already under way",
+                    endpoint.getLabel(), _concurrencyLimiter.getInFlight());
+
+            throw unavailable("Too many calls to GitHub are under way", 0);
+        }
+
+        @Nullable CircuitBreaker circuitBreaker = _circuitBreakers.get(endpoint);
+
+        if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission())
+        {
+            if (_concurrencyLimiter != null)
+            {
+                _concurrencyLimiter.cancel();
+            }
+
+            _logger.debug("Not calling the {} endpoint because its circuit breaker is open", endpoint.getLabel());
+
+            throw unavailable("GitHub is not responding as expected", circuitBreaker.getRetryAfterMillis());
+        }
+
+        GitHubResponse response;
+        Trace trace = Tracing.begin(_authenticatorId, endpoint);
+        long start = System.nanoTime();
+        boolean failed = true;
+
+        _inFlight.incrementAndGet();
+
+        try
+        {
+            response = call.get();
+            failed = response.getStatusCode() >= 500;
+
+            trace.response(response);
+        }
+        finally
+        {
+            long elapsed = System.nanoTime() - start;
+
+            trace.finish();
+            _inFlight.decrementAndGet();
+            _latencies[endpoint.ordinal()].record(elapsed);
+
+            if (_concurrencyLimiter != null)
+            {
+                _concurrencyLimiter.release(endpoint, elapsed, failed);
+            }
+
+            if (circuitBreaker != null)
+            {
+                circuitBreaker.record(elapsed, failed);
+            }
+        }
+
+        if (_rateLimitTracker.record(endpoint, userId, response))
+        {
+            throw unavailable("The rate limit of GitHub has been exceeded",
+                    _rateLimitTracker.getRetryAfterMillis(endpoint, userId));
+        }
+
+        return response;
+    }
+
+    /**
+     * @return the deadline of the calls of a login that starts now, as a value of {@link System#nanoTime()}
+     */
+    public long newDeadline()
+    {
+        return System.nanoTime() + _loginTimeBudgetNanos;
+    }
+
+    /**
+     * Makes an idempotent call to GitHub, retrying it when it fails in a way that is likely to be transient.
+     *
+     * @param endpoint the endpoint that is called
+     * @param userId   the ID of the user whose rate limit the call counts against, or null if it is not known
+     * @param deadline the deadline of the login, as returned by {@link #newDeadline()}
+     * @param call     the call, which must send a new request every time it is invoked
+     * @return the response of GitHub
+     */
+    public GitHubResponse executeGet(GitHubEndpoint endpoint, @Nullable String userId, long deadline,
+                                     Supplier<GitHubResponse> call)
+    {
+        return retrying(endpoint, deadline, () -> execute(endpoint, userId, call));
+    }
+
+    /**
+     * Makes an idempotent call to GitHub like {@link #executeGet(GitHubEndpoint, String, long, Supplier)}, but also
+     * sends it again if it is not answered in time when hedging is turned on. The answer that comes first is used.
+     *
+     * @param endpoint the endpoint that is called
+     * @param userId   the ID of the user whose rate limit the call counts against, or null if it is not known
+     * @param deadline the deadline of the login, as returned by {@link #newDeadline()}
+     * @param call     the call, which must send a new request every time it is invoked
+     * @return the first response of GitHub
+     */
+    public GitHubResponse executeHedged(GitHubEndpoint endpoint, @Nullable String userId, long deadline,
+                                        Supplier<GitHubResponse> call)
+    {
+        return retrying(endpoint, deadline, () -> hedged(endpoint, userId, call));
+    }
+
+    /**
+     * Makes a call, and makes it again after a random backoff as long as it fails with a server error or a failed
+     * connection, there are retries left and both the login and the retry budget allow it.
+     */
+    private GitHubResponse retrying(GitHubEndpoint endpoint, long deadline, Supplier<GitHubResponse> call)
+    {
+        _retryBudget.deposit();
+
+        for (int attempt = 0; ; attempt++)
+        {
+            long start = System.nanoTime();
+            @Nullable GitHubResponse response = null;
+            @Nullable RuntimeException failure = null;
+
+            try
+            {
+                response = call.get();
+
+                if (!isRetryable(response.getStatusCode()))
+                {
+                    return response;
+                }
+            }
+            catch (RuntimeException e)
+            {
+                if (!isConnectionFailure(e))
+                {
+                    throw e;
+                }
+
+                failure = e;
+            }
+
+            long now = System.nanoTime();
+            // Full jitter: a random delay of up to an exponentially growing maximum
+            long backoff = (long) (ThreadLocalRandom.current().nextDouble() *
+                    Math.min(RETRY_MAX_DELAY_NANOS, RETRY_BASE_DELAY_NANOS << Math.min(attempt, 20)));
+
+            // The next attempt is expected to take as long as this one did
+            if (attempt >= _maxRetries || deadline - (now + backoff + (now - start)) < 0 ||
+                    !_retryBudget.tryWithdraw())
+            {
+                if (response != null)
+                {
+                    return response;
+                }
+
+                throw failure;
+            }
+
+            _logger.debug("The call to the {} endpoint failed; retrying in {} ms", endpoint.getLabel(),
+                    TimeUnit.NANOSECONDS.toMillis(backoff));
+
+            try
+            {
+                TimeUnit.NANOSECONDS.sleep(backoff);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+
+                if (response != null)
+                {
+                    return response;
+                }
+
+                throw failure;
+            }
+        }
+    }
+
+    private static boolean isRetryable(int statusCode)
+    {
+        return statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    private GitHubResponse hedged(GitHubEndpoint endpoint, @Nullable String userId, Supplier<GitHubResponse> call)
+    {
+        if (_hedgingPolicy == null)
+        {
+            return execute(endpoint, userId, call);
+        }
+
+        HedgingPolicy hedgingPolicy = _hedgingPolicy;
+        long delayNanos = hedgingPolicy.startCall();
+        Supplier<GitHubResponse> timedCall = () ->
+        {
+            long start = System.nanoTime();
+            GitHubResponse response = execute(endpoint, userId, call);
+
+            hedgingPolicy.recordLatency(System.nanoTime() - start);
+
+            return response;
+        };
+
+        if (delayNanos < 0)
+        {
+            return timedCall.get();
+        }
+
+        CompletableFuture<GitHubResponse> original = CompletableFuture.supplyAsync(timedCall,
+                GitHubRequestExecutor.get());
+
+        try
+        {
+            return original.get(delayNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException e)
+        {
+            if (!hedgingPolicy.tryHedge())
+            {
+                return join(original);
+            }
+
+            _logger.debug("The {} endpoint did not answer within {} ms; sending the request again",
+                    endpoint.getLabel(), TimeUnit.NANOSECONDS.toMillis(delayNanos));
+
+            CompletableFuture<GitHubResponse> hedge = CompletableFuture.supplyAsync(timedCall,
+                    GitHubRequestExecutor.get());
+            CompletableFuture<GitHubResponse> first = new CompletableFuture<>();
+
+            original.whenComplete((response, failure) -> completeFirst(first, response, failure, hedge));
+            hedge.whenComplete((response, failure) ->
+            {
+                if (completeFirst(first, response, failure, original))
+                {
+                    hedgingPolicy.recordHedgeWin();
+                }
+            });
+
+            return join(first);
+        }
+        catch (ExecutionException e)
+        {
+            throw unwrap(e.getCause());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            throw _exceptionFactory.internalServerException(ErrorCode.EXTERNAL_SERVICE_ERROR);
+        }
+    }
+
+    /**
+     * Completes the first of two calls with the response of one of them, unless it has already been. A failure is
+     * only passed on when the other call has failed as well.
+     *
+     * @return true if the first call was completed with the response
+     */
+    private static boolean completeFirst(CompletableFuture<GitHubResponse> first, @Nullable GitHubResponse response,
+                                         @Nullable Throwable failure, CompletableFuture<GitHubResponse> other)
+    {
+        if (failure == null)
+        {
+            return first.complete(response);
+        }
+
+        if (other.isCompletedExceptionally())
+        {
+            first.completeExceptionally(failure);
+        }
+
+        return false;
+    }
+
+    private GitHubResponse join(CompletableFuture<GitHubResponse> call)
+    {
+        try
+        {
+            return call.join();
+        }
+        catch (CompletionException e)
+        {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private RuntimeException unwrap(Throwable failure)
+    {
+        if (failure instanceof RuntimeException)
+        {
+            return (RuntimeException) failure;
+        }
+
+        _logger.warn("Call to GitHub failed", failure);
+
+        return _exceptionFactory.internalServerException(ErrorCode.EXTERNAL_SERVICE_ERROR);
+    }
+
+    /**
+     * Makes a call to GitHub that must not be repeated once it reached GitHub, sending it again only when no
+     * connection could be made.
+     *
+     * @param endpoint the endpoint that is called
+     * @param userId   the ID of the user whose rate limit the call counts against, or null if it is not known
+     * @param call     the call, which must send a new request every time it is invoked
+     * @return the response of GitHub
+     */
+    public GitHubResponse executeRetryingConnectFailures(GitHubEndpoint endpoint, @Nullable String userId,
+                                                       Supplier<GitHubResponse> call)
+    {
+        for (int attempt = 0; ; attempt++)
+        {
+            try
+            {
+                return execute(endpoint, userId, call);
+            }
+            catch (RuntimeException e)
+            {
+                if (attempt >= _connectRetries || !isConnectFailure(e))
+                {
+                    throw e;
+                }
+
+                _logger.info("Could not connect to the {} endpoint; trying again", endpoint.getLabel(), e);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a failure happened while connecting, in which case the request was never sent.
+     */
+    private static boolean isConnectFailure(Throwable failure)
+    {
+        for (@Nullable Throwable cause = failure; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException ||
+                    cause instanceof NoRouteToHostException)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether a failure was caused by the connection, e.g., because it could not be made or was reset.
+     */
+    private static boolean isConnectionFailure(Throwable failure)
+    {
+        for (@Nullable Throwable cause = failure; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof SocketException || cause instanceof UnknownHostException)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether a call that the login can do without should be made, or skipped to save the rate limit.
+     *
+     * @param endpoint the endpoint that would be called
+     * @param userId   the ID of the user whose rate limit the call would count against, or null if it is not known
+     */
+    public boolean permitsOptionalCall(GitHubEndpoint endpoint, @Nullable String userId)
+    {
+        return _rateLimitTracker.permitsOptionalCall(endpoint, userId);
+    }
+
+    /**
+     * Records the rate limit of a user that GitHub announced in the response to a call to the endpoint that was made
+     * before the ID of the user was known.
+     */
+    public void recordRateLimit(GitHubEndpoint endpoint, String userId, GitHubResponse response)
+    {
+        _rateLimitTracker.recordBudget(endpoint, userId, response);
+    }
+
+    /**
+     * @return the latencies of the calls to the endpoint, whether they succeeded or not
+     */
+    public LatencyHistogram getLatencies(GitHubEndpoint endpoint)
+    {
+        return _latencies[endpoint.ordinal()];
+    }
+
+    /**
+     * @return the number of calls to GitHub that are under way
+     */
+    public int getInFlight()
+    {
+        return _inFlight.get();
+    }
+
+    public RateLimitTracker getRateLimitTracker()
+    {
+        return _rateLimitTracker;
+    }
+
+    /**
+     * @return the circuit breaker of the endpoint, or null if circuit breakers are turned off
+     */
+    @Nullable
+    public CircuitBreaker getCircuitBreaker(GitHubEndpoint endpoint)
+    {
+        return _circuitBreakers.get(endpoint);
+    }
+
+    /**
+     * @return the policy of hedging user info requests, or null if they are not hedged
+     */
+    @Nullable
+    public HedgingPolicy getHedgingPolicy()
+    {
+        return _hedgingPolicy;
+    }
+
+    /**
+     * @return the limit of concurrent calls, or null if there is none
+     */
+    @Nullable
+    public ConcurrencyLimiter getConcurrencyLimiter()
+    {
+        return _concurrencyLimiter;
+    }
+
+    private RuntimeException unavailable(String reason, long retryAfterMillis)
+    {
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999));
+
+        return _exceptionFactory.externalServiceException(String.format("%s; try again in %d %s", reason,
+                retryAfterSeconds, retryAfterSeconds == 1 ? "second" : "seconds"));
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import io.curity.identityserver.plugin.github.config.ConfigurationScoped;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.curity.identityserver.sdk.Nullable;
+import se.curity.identityserver.sdk.errors.ErrorCode;
+import se.curity.identityserver.sdk.service.ExceptionFactory;
+import se.curity.identityserver.sdk.service.HttpClient;
+import se.curity.identityserver.sdk.service.WebServiceClient;
+import se.curity.identityserver.sdk.service.WebServiceClientFactory;
+
+import java.net.URI;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The clients of the GitHub endpoints of an authenticator instance, which are created once per configuration and
+ * shared by all logins.
+ *
+ * <p>The scheme of the configured HTTP client is checked when the clients are created. If it is not the one that
+ * GitHub requires, the problem is logged once and every login fails with a configuration error.
+ */
+public final class GitHubClients
+{
+    private static final Logger _logger = LoggerFactory.getLogger(GitHubClients.class);
+    private static final ConfigurationScoped<GitHubClients> _clientsByConfiguration =
+            new ConfigurationScoped<>(GitHubClients::new);
+    private static final URI TOKEN_ENDPOINT = URI.create("https://github.com/login/oauth/access_token");
+    private static final URI API = URI.create("https://api.github.com");
+
+    private final ExceptionFactory _exceptionFactory;
+    @Nullable
+    private final String _configurationError;
+    @Nullable
+    private final WebServiceClient _tokenClient;
+    @Nullable
+    private final WebServiceClient _apiClient;
+    @Nullable
+    private final WebServiceClient _userClient;
+    @Nullable
+    private final WebServiceClient _emailsClient;
+    @Nullable
+    private final WebServiceClient _membershipClient;
+    @Nullable
+    private final WebServiceClient _graphQlClient;
+
+    private GitHubClients(GitHubAuthenticatorPluginConfig config)
+    {
+        _exceptionFactory = config.getExceptionFactory();
+
+        Optional<HttpClient> httpClient = config.getHttpClient();
+        @Nullable String configuredScheme = httpClient.map(HttpClient::getScheme).orElse(null);
+
+        if (httpClient.isPresent() && !Objects.equals(configuredScheme, API.getScheme()))
+        {
+            _configurationError = String.format("HTTP scheme of client is not acceptable; %s is required but %s " +
+                    "was found", API.getScheme(), configuredScheme);
+            _tokenClient = null;
+            _apiClient = null;
+            _userClient = null;
+            _emailsClient = null;
+            _membershipClient = null;
+            _graphQlClient = null;
+
+            _logger.error("HTTP client of the GitHub authenticator {} is configured with the scheme {}, but {} is " +
+                    "required. No user can log in until the configuration is corrected.", config.id(),
+                    configuredScheme, API.getScheme());
+        }
+        else
+        {
+            WebServiceClientFactory factory = config.getWebServiceClientFactory();
+
+            _configurationError = null;
+            _tokenClient = create(factory, httpClient, TOKEN_ENDPOINT);
+            _apiClient = create(factory, httpClient, API);
+            _userClient = _apiClient.withPath("/user");
+            _membershipClient = config.getManageOrganization()
+                    .flatMap(GitHubAuthenticatorPluginConfig.ManageOrganization::getOrganizationName)
+                    .map(organizationName -> _apiClient.withPath("/user/memberships/orgs/" + organizationName))
+                    .orElse(null);
+            _emailsClient = _apiClient.withPath("/user/emails");
+            _graphQlClient = _apiClient.withPath("/graphql");
+        }
+    }
+
+    public static GitHubClients of(GitHubAuthenticatorPluginConfig config)
+    {
+        return _clientsByConfiguration.get(config);
+    }
+
+    private static WebServiceClient create(WebServiceClientFactory factory, Optional<HttpClient> httpClient, URI uri)
+    {
+        return httpClient
+                .map(h -> factory.create(h).withHost(uri.getHost()).withPath(uri.getPath()))
+                .orElseGet(() -> factory.create(uri));
+    }
+
+    /**
+     * @return the client of the token endpoint
+     */
+    public WebServiceClient getTokenClient()
+    {
+        checkConfiguration();
+
+        return _tokenClient;
+    }
+
+    /**
+     * @return the client of the user endpoint of the API
+     */
+    public WebServiceClient getUserClient()
+    {
+        checkConfiguration();
+
+        return _userClient;
+    }
+
+    /**
+     * @return the client of the email addresses of the authenticated user
+     */
+    public WebServiceClient getEmailsClient()
+    {
+        checkConfiguration();
+
+        return _emailsClient;
+    }
+
+    /**
+     * @return the client of the endpoint of the membership of the authenticated user in the configured organization
+     * @throws IllegalStateException if no organization is configured
+     */
+    public WebServiceClient getMembershipClient()
+    {
+        checkConfiguration();
+
+        if (_membershipClient == null)
+        {
+            throw new IllegalStateException("No organization is configured");
+        }
+
+        return _membershipClient;
+    }
+
+    /**
+     * @return the client of the GraphQL API
+     */
+    public WebServiceClient getGraphQlClient()
+    {
+        checkConfiguration();
+
+        return _graphQlClient;
+    }
+
+    /**
+     * @param path the path of the endpoint of the API, e.g., /user/emails
+     * @return a client of the endpoint
+     */
+    public WebServiceClient getApiClient(String path)
+    {
+        checkConfiguration();
+
+        return _apiClient.withPath(path);
+    }
+
+    /**
+     * Fails with a configuration error if the configured HTTP client can't be used.
+     */
+    public void checkConfiguration()
+    {
+        if (_configurationError != null)
+        {
+            throw _exceptionFactory.internalServerException(ErrorCode.CONFIGURATION_ERROR, _configurationError);
+        }
+    }
+}
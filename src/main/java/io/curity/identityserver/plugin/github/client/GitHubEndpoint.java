@@ -0,0 +1,65 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+/**
+ * The endpoints of GitHub that the plugin calls.
+ */
+public enum GitHubEndpoint
+{
+    ACCESS_TOKEN("access_token", "github.com", RateLimitResource.CORE),
+    USER("user", "api.github.com", RateLimitResource.CORE),
+    USER_EMAILS("user_emails", "api.github.com", RateLimitResource.CORE),
+    ORGANIZATION_MEMBER("organization_member", "api.github.com", RateLimitResource.CORE),
+    ORGANIZATION_MEMBERSHIP("organization_membership", "api.github.com", RateLimitResource.CORE),
+    GRAPHQL("graphql", "api.github.com", RateLimitResource.GRAPHQL);
+
+    private final String _label;
+    private final String _host;
+    private final RateLimitResource _rateLimitResource;
+
+    GitHubEndpoint(String label, String host, RateLimitResource rateLimitResource)
+    {
+        _label = label;
+        _host = host;
+        _rateLimitResource = rateLimitResource;
+    }
+
+    /**
+     * @return the name of the endpoint in logs and metrics
+     */
+    public String getLabel()
+    {
+        return _label;
+    }
+
+    /**
+     * @return the host that serves the endpoint
+     */
+    public String getHost()
+    {
+        return _host;
+    }
+
+    /**
+     * @return the rate limit that the calls to the endpoint count against
+     */
+    public RateLimitResource getRateLimitResource()
+    {
+        return _rateLimitResource;
+    }
+}
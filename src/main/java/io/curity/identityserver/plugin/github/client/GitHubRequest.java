@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import se.curity.identityserver.sdk.Nullable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A request to an endpoint of GitHub, independent of the transport that sends it. The response is always requested
+ * as JSON.
+ */
+public final class GitHubRequest
+{
+    private final GitHubEndpoint _endpoint;
+    private final String _path;
+    @Nullable
+    private final Map<String, String> _form;
+    @Nullable
+    private final String _json;
+    private final Map<String, String> _headers = new LinkedHashMap<>(4);
+
+    private GitHubRequest(GitHubEndpoint endpoint, String path, @Nullable Map<String, String> form,
+                          @Nullable String json)
+    {
+        _endpoint = endpoint;
+        _path = path;
+        _form = form;
+        _json = json;
+    }
+
+    /**
+     * @param endpoint the endpoint that is called
+     * @param path     the path of the endpoint on its host, e.g., /user
+     */
+    public static GitHubRequest get(GitHubEndpoint endpoint, String path)
+    {
+        return new GitHubRequest(endpoint, path, null, null);
+    }
+
+    /**
+     * @param endpoint the endpoint that is called
+     * @param path     the path of the endpoint on its host, e.g., /login/oauth/access_token
+     * @param form     the parameters that are posted as a URL-encoded form
+     */
+    public static GitHubRequest post(GitHubEndpoint endpoint, String path, Map<String, String> form)
+    {
+        return new GitHubRequest(endpoint, path, Collections.unmodifiableMap(form), null);
+    }
+
+    /**
+     * @param endpoint the endpoint that is called
+     * @param path     the path of the endpoint on its host, e.g., /graphql
+     * @param json     the JSON document that is posted
+     */
+    public static GitHubRequest postJson(GitHubEndpoint endpoint, String path, String json)
+    {
+        return new GitHubRequest(endpoint, path, null, json);
+    }
+
+    public GitHubRequest withHeader(String name, String value)
+    {
+        _headers.put(name, value);
+
+        return this;
+    }
+
+    public GitHubRequest withAccessToken(String accessToken)
+    {
+        return withHeader("Authorization", "Bearer " + accessToken);
+    }
+
+    public GitHubEndpoint getEndpoint()
+    {
+        return _endpoint;
+    }
+
+    public String getPath()
+    {
+        return _path;
+    }
+
+    /**
+     * @return the parameters of the form that is posted, or null if no form is posted
+     */
+    @Nullable
+    public Map<String, String> getForm()
+    {
+        return _form;
+    }
+
+    /**
+     * @return the JSON document that is posted, or null if none is posted
+     */
+    @Nullable
+    public String getJson()
+    {
+        return _json;
+    }
+
+    public Map<String, String> getHeaders()
+    {
+        return Collections.unmodifiableMap(_headers);
+    }
+}
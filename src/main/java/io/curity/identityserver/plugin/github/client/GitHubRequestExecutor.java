@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executor of the requests to GitHub that are made in parallel with the one on the request thread.
+ *
+ * <p>The pool is shared by all authenticator instances. When all of its threads are busy, a request runs on the
+ * thread that submitted it instead, so a login never waits for a free thread.
+ *
+ * <p>This is the executor that is used before Java 21. On later versions, the one in {@code META-INF/versions/21} of
+ * the multi-release JAR runs each request on a virtual thread instead.
+ */
+public final class GitHubRequestExecutor
+{
+    private static final int MAX_THREADS = 64;
+    private static final Executor _executor = createExecutor();
+
+    private GitHubRequestExecutor()
+    {
+    }
+
+    public static Executor get()
+    {
+        return _executor;
+    }
+
+    /**
+     * @return true if the requests run on virtual threads, which can block without tying up a platform thread
+     */
+    static boolean usesVirtualThreads()
+    {
+        return false;
+    }
+
+    private static Executor createExecutor()
+    {
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return new ThreadPoolExecutor(0, MAX_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable ->
+                {
+                    Thread thread = new Thread(runnable, "github-authenticator-" + threadNumber.incrementAndGet());
+
+                    thread.setDaemon(true);
+
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import se.curity.identityserver.sdk.http.HttpResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A response of GitHub, whose body has been read completely, independent of the transport that received it.
+ */
+public final class GitHubResponse
+{
+    private final int _statusCode;
+    private final byte[] _body;
+    private final Function<String, Optional<String>> _headers;
+
+    /**
+     * @param statusCode the HTTP status code of the response
+     * @param body       the body of the response
+     * @param headers    looks up the first value of a header of the response by its name
+     */
+    public GitHubResponse(int statusCode, byte[] body, Function<String, Optional<String>> headers)
+    {
+        _statusCode = statusCode;
+        _body = body;
+        _headers = headers;
+    }
+
+    public static GitHubResponse of(HttpResponse response)
+    {
+        return new GitHubResponse(response.statusCode(), response.body(HttpResponse.asBytes()),
+                response.headers()::firstValue);
+    }
+
+    public int getStatusCode()
+    {
+        return _statusCode;
+    }
+
+    /**
+     * @return the body of the response, which must not be modified
+     */
+    public byte[] getBody()
+    {
+        return _body;
+    }
+
+    public String getBodyAsString()
+    {
+        return new String(_body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the first value of the header, if the response has it
+     */
+    public Optional<String> getHeader(String name)
+    {
+        return _headers.apply(name);
+    }
+}
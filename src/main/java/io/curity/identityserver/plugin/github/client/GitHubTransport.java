@@ -0,0 +1,36 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+/**
+ * Sends requests to GitHub.
+ */
+public interface GitHubTransport
+{
+    /**
+     * Sends a request and waits for the whole response.
+     *
+     * @return the response of GitHub, whatever its status
+     * @throws RuntimeException if no response was received, with the cause of the failure among its causes
+     */
+    GitHubResponse send(GitHubRequest request);
+
+    /**
+     * Fails if the transport can't be used because it is not configured correctly.
+     */
+    void checkConfiguration();
+}
@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import io.curity.identityserver.plugin.github.config.ConfigurationScoped;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.Transport;
+import io.curity.identityserver.plugin.github.metrics.Jmx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.curity.identityserver.sdk.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * The transports of the authenticator instances, which are created once per configuration so that their
+ * connections are shared by all logins.
+ */
+public final class GitHubTransports
+{
+    private static final Logger _logger = LoggerFactory.getLogger(GitHubTransports.class);
+    private static final ConfigurationScoped<GitHubTransport> _transportsByConfiguration =
+            new ConfigurationScoped<>(GitHubTransports::create);
+
+    private GitHubTransports()
+    {
+    }
+
+    /**
+     * @return the transport of the authenticator instance
+     * @throws RuntimeException with a configuration error if the transport can't be used
+     */
+    public static GitHubTransport get(GitHubAuthenticatorPluginConfig config)
+    {
+        GitHubTransport transport = _transportsByConfiguration.get(config);
+
+        transport.checkConfiguration();
+
+        return transport;
+    }
+
+    private static GitHubTransport create(GitHubAuthenticatorPluginConfig config)
+    {
+        if (config.getTransport() == Transport.JDK_HTTP_CLIENT)
+        {
+            TransportStatistics statistics = new TransportStatistics();
+            @Nullable GitHubTransport transport = loadJdkHttpTransport(config, statistics);
+
+            if (transport != null)
+            {
+                if (config.getHttpClient().isPresent())
+                {
+                    _logger.warn("The GitHub authenticator {} uses the HTTP client of the JDK, so its HTTP client " +
+                            "setting, including its proxy, is ignored", config.id());
+                }
+
+                Jmx.register("Transport", config.id(), statistics);
+
+                return transport;
+            }
+        }
+
+        return new SdkTransport(GitHubClients.of(config));
+    }
+
+    /**
+     * Loads the transport that uses the HTTP client of the JDK, which is only in the classes for Java 11 and later.
+     *
+     * @return the transport, or null if this is an earlier version of Java
+     */
+    @Nullable
+    private static GitHubTransport loadJdkHttpTransport(GitHubAuthenticatorPluginConfig config,
+                                                        TransportStatistics statistics)
+    {
+        Constructor<?> constructor;
+
+        try
+        {
+            Class.forName("java.net.http.HttpClient", false, GitHubTransports.class.getClassLoader());
+
+            constructor = Class.forName(GitHubTransports.class.getPackage().getName() + ".JdkHttpTransport")
+                    .getDeclaredConstructor(GitHubAuthenticatorPluginConfig.class, TransportStatistics.class);
+        }
+        catch (ReflectiveOperationException | LinkageError e)
+        {
+            _logger.warn("The GitHub authenticator {} is configured to use the HTTP client of the JDK, which " +
+                    "requires Java 11 or later. The web service clients of the server are used instead.",
+                    config.id());
+            _logger.debug("The HTTP client of the JDK is not available", e);
+
+            return null;
+        }
+
+        try
+        {
+            return (GitHubTransport) constructor.newInstance(config, statistics);
+        }
+        catch (InvocationTargetException e)
+        {
+            Throwable cause = e.getCause();
+
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("The transport that uses the HTTP client of the JDK can't be created", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides when a call that hasn't been answered yet is sent again, and keeps track of how often that helps.
+ *
+ * <p>The delay is a percentile of the time that recent calls took, so only the slowest calls are hedged, and the
+ * number of hedges is limited by a budget of a percentage of the calls.
+ */
+public final class HedgingPolicy implements HedgingPolicyMXBean
+{
+    private static final int SAMPLES = 256;
+    private static final int MINIMUM_SAMPLES = 32;
+    private static final int SAMPLES_PER_UPDATE = 32;
+    private static final long MINIMUM_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final int MAXIMUM_SAVED_HEDGES = 10;
+
+    private final int _percentile;
+    private final RequestBudget _budget;
+    private final LongAdder _calls = new LongAdder();
+    private final LongAdder _hedgedCalls = new LongAdder();
+    private final LongAdder _hedgeWins = new LongAdder();
+
+    // Guarded by this
+    private final long[] _samples = new long[SAMPLES];
+    private int _sampleCount;
+    private int _samplesSinceUpdate;
+    private volatile long _delayNanos = -1;
+
+    /**
+     * @param percentile       the percentile of the recent calls after which a call is hedged
+     * @param budgetPercentage the percentage of the calls that may be hedged
+     */
+    HedgingPolicy(int percentile, int budgetPercentage)
+    {
+        _percentile = Math.max(1, Math.min(100, percentile));
+        _budget = new RequestBudget(budgetPercentage, MAXIMUM_SAVED_HEDGES);
+    }
+
+    /**
+     * Counts a call that may be hedged.
+     *
+     * @return the number of nanoseconds to wait for an answer before hedging the call, or -1 if too few calls have
+     * been made to tell
+     */
+    long startCall()
+    {
+        _calls.increment();
+        _budget.deposit();
+
+        return _delayNanos;
+    }
+
+    /**
+     * Records the time that a call took, whether it was the original or a hedge.
+     */
+    synchronized void recordLatency(long elapsedNanos)
+    {
+        _samples[_sampleCount++ % SAMPLES] = elapsedNanos;
+
+        if (_sampleCount >= 2 * SAMPLES)
+        {
+            // Keep the count from overflowing while remembering that the buffer is full
+            _sampleCount -= SAMPLES;
+        }
+
+        if (++_samplesSinceUpdate >= SAMPLES_PER_UPDATE && _sampleCount >= MINIMUM_SAMPLES)
+        {
+            int count = Math.min(_sampleCount, SAMPLES);
+            long[] sorted = Arrays.copyOf(_samples, count);
+
+            Arrays.sort(sorted);
+
+            _delayNanos = Math.max(MINIMUM_DELAY_NANOS, sorted[(count * _percentile + 99) / 100 - 1]);
+            _samplesSinceUpdate = 0;
+        }
+    }
+
+    /**
+     * Asks for a hedge to be sent.
+     *
+     * @return true if the budget allows it
+     */
+    boolean tryHedge()
+    {
+        if (_budget.tryWithdraw())
+        {
+            _hedgedCalls.increment();
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Records that a hedge was answered before the original call.
+     */
+    void recordHedgeWin()
+    {
+        _hedgeWins.increment();
+    }
+
+    @Override
+    public long getDelayMillis()
+    {
+        long delayNanos = _delayNanos;
+
+        return delayNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(delayNanos);
+    }
+
+    @Override
+    public long getCalls()
+    {
+        return _calls.sum();
+    }
+
+    @Override
+    public long getHedgedCalls()
+    {
+        return _hedgedCalls.sum();
+    }
+
+    @Override
+    public long getHedgeWins()
+    {
+        return _hedgeWins.sum();
+    }
+}
@@ -0,0 +1,704 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A selection of the fields of a JSON object that reads only those fields from a response of GitHub.
+ *
+ * <p>The response is read from its UTF-8 bytes in a single pass. Only the values of the selected fields are
+ * decoded; all other values, including the nested objects and arrays that are not selected, are skipped without
+ * allocating. Skipped values are still checked, so that a response is only read if all of it is well-formed JSON.
+ */
+public final class JsonFields
+{
+    private final String[] _names;
+    private final byte[][] _encodedNames;
+    // The selections of the fields whose values are objects that are read too, by the index of the field
+    private final JsonFields[] _objects;
+
+    private JsonFields(String[] names, JsonFields[] objects)
+    {
+        _names = names;
+        _objects = objects;
+        _encodedNames = new byte[names.length][];
+
+        for (int i = 0; i < names.length; i++)
+        {
+            _encodedNames[i] = names[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    public static JsonFields of(String... names)
+    {
+        return new JsonFields(names.clone(), new JsonFields[names.length]);
+    }
+
+    /**
+     * Selects another field, whose value is an object of which the given fields are read, e.g., a nested object of a
+     * response of the GraphQL API.
+     *
+     * @return the selection of these fields and the other one, whose value is read as a map of the fields of the
+     * object, as {@link #read(byte[])} returns them
+     */
+    public JsonFields withObject(String name, JsonFields fields)
+    {
+        String[] names = Arrays.copyOf(_names, _names.length + 1);
+        JsonFields[] objects = Arrays.copyOf(_objects, _objects.length + 1);
+
+        names[_names.length] = name;
+        objects[_objects.length] = fields;
+
+        return new JsonFields(names, objects);
+    }
+
+    /**
+     * Reads the selected fields of a JSON object.
+     *
+     * @param json the UTF-8 encoded object
+     * @return the fields that are in the object and not null, by name. Strings are {@link String}s, booleans
+     * {@link Boolean}s and numbers typed like the {@code Json} service of the SDK types them, i.e., integers are
+     * {@link Integer}s, or {@link Long}s or {@link BigInteger}s when they don't fit, and other numbers
+     * {@link Double}s. Fields whose values are objects or arrays are left out, unless they are objects that are
+     * selected with {@link #withObject(String, JsonFields)}.
+     * @throws IllegalArgumentException if the JSON is malformed or not an object
+     */
+    public Map<String, Object> read(byte[] json)
+    {
+        return Collections.unmodifiableMap(new Parser(json).readObject(this));
+    }
+
+    /**
+     * Reads the selected fields of each object in a JSON array, e.g., the email addresses of a user.
+     *
+     * @param json the UTF-8 encoded array of objects
+     * @return the fields of each object, as {@link #read(byte[])} returns them
+     * @throws IllegalArgumentException if the JSON is malformed or not an array of objects
+     */
+    public List<Map<String, Object>> readArray(byte[] json)
+    {
+        return Collections.unmodifiableList(new Parser(json).readArray(this));
+    }
+
+    private int indexOf(byte[] json, int start, int end)
+    {
+        int length = end - start;
+
+        for (int i = 0; i < _encodedNames.length; i++)
+        {
+            byte[] name = _encodedNames[i];
+
+            if (name.length == length && regionMatches(json, start, name))
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private int indexOf(String name)
+    {
+        for (int i = 0; i < _names.length; i++)
+        {
+            if (_names[i].equals(name))
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean regionMatches(byte[] json, int start, byte[] name)
+    {
+        for (int i = 0; i < name.length; i++)
+        {
+            if (json[start + i] != name[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static final class Parser
+    {
+        // Deeper nesting is rejected rather than risking to overflow the stack while skipping it
+        private static final int MAX_DEPTH = 64;
+
+        private final byte[] _json;
+        private int _position;
+
+        Parser(byte[] json)
+        {
+            _json = json;
+        }
+
+        Map<String, Object> readObject(JsonFields selection)
+        {
+            skipWhitespace();
+
+            Map<String, Object> fields = readFields(selection);
+
+            expectEnd();
+
+            return fields;
+        }
+
+        List<Map<String, Object>> readArray(JsonFields selection)
+        {
+            List<Map<String, Object>> objects = new ArrayList<>();
+
+            skipWhitespace();
+            expect('[');
+            skipWhitespace();
+
+            if (peek() == ']')
+            {
+                _position++;
+            }
+            else
+            {
+                do
+                {
+                    skipWhitespace();
+                    objects.add(Collections.unmodifiableMap(readFields(selection)));
+                    skipWhitespace();
+                }
+                while (tryConsume(','));
+
+                expect(']');
+            }
+
+            expectEnd();
+
+            return objects;
+        }
+
+        private Map<String, Object> readFields(JsonFields selection)
+        {
+            Map<String, Object> fields = new HashMap<>(selection._names.length * 4 / 3 + 1);
+
+            expect('{');
+            skipWhitespace();
+
+            if (peek() == '}')
+            {
+                _position++;
+            }
+            else
+            {
+                do
+                {
+                    skipWhitespace();
+
+                    int field = readFieldIndex(selection);
+
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+
+                    if (field < 0)
+                    {
+                        skipValue(0);
+                    }
+                    else if (selection._objects[field] != null)
+                    {
+                        if (peek() == '{')
+                        {
+                            fields.put(selection._names[field],
+                                    Collections.unmodifiableMap(readFields(selection._objects[field])));
+                        }
+                        else
+                        {
+                            skipValue(0);
+                        }
+                    }
+                    else
+                    {
+                        Object value = readValue();
+
+                        if (value != null)
+                        {
+                            fields.put(selection._names[field], value);
+                        }
+                    }
+
+                    skipWhitespace();
+                }
+                while (tryConsume(','));
+
+                expect('}');
+            }
+
+            return fields;
+        }
+
+        private void expectEnd()
+        {
+            skipWhitespace();
+
+            if (_position != _json.length)
+            {
+                throw malformed();
+            }
+        }
+
+        private int readFieldIndex(JsonFields selection)
+        {
+            expect('"');
+
+            int start = _position;
+
+            while (true)
+            {
+                byte b = next();
+
+                if (b == '"')
+                {
+                    return selection.indexOf(_json, start, _position - 1);
+                }
+                else if (b == '\\')
+                {
+                    // Escaped names are unusual enough to not be worth avoiding the allocation
+                    _position = start - 1;
+
+                    return selection.indexOf(readString());
+                }
+                else if (isControlCharacter(b))
+                {
+                    throw malformed();
+                }
+            }
+        }
+
+        /**
+         * @return the value, or null if it is null, an object or an array
+         */
+        private Object readValue()
+        {
+            switch (peek())
+            {
+                case '"':
+                    return readString();
+                case 't':
+                    expectLiteral("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    expectLiteral("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    expectLiteral("null");
+                    return null;
+                case '{':
+                case '[':
+                    skipValue(0);
+                    return null;
+                default:
+                    return readNumber();
+            }
+        }
+
+        private String readString()
+        {
+            expect('"');
+
+            int start = _position;
+
+            while (true)
+            {
+                byte b = next();
+
+                if (b == '"')
+                {
+                    return new String(_json, start, _position - 1 - start, StandardCharsets.UTF_8);
+                }
+                else if (b == '\\')
+                {
+                    _position = start;
+
+                    return readEscapedString();
+                }
+                else if (isControlCharacter(b))
+                {
+                    throw malformed();
+                }
+            }
+        }
+
+        private String readEscapedString()
+        {
+            StringBuilder value = new StringBuilder();
+            int segmentStart = _position;
+
+            while (true)
+            {
+                byte b = next();
+
+                if (b == '"' || b == '\\')
+                {
+                    value.append(new String(_json, segmentStart, _position - 1 - segmentStart,
+                            StandardCharsets.UTF_8));
+
+                    if (b == '"')
+                    {
+                        return value.toString();
+                    }
+
+                    value.append(readEscape());
+                    segmentStart = _position;
+                }
+                else if (isControlCharacter(b))
+                {
+                    throw malformed();
+                }
+            }
+        }
+
+        /**
+         * @return true if the byte is a control character, which must be escaped in a string
+         */
+        private static boolean isControlCharacter(byte b)
+        {
+            // The bytes of multi-byte characters are negative
+            return b >= 0 && b < 0x20;
+        }
+
+        private char readEscape()
+        {
+            byte b = next();
+
+            switch (b)
+            {
+                case '"':
+                case '\\':
+                case '/':
+                    return (char) b;
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'u':
+                    int c = 0;
+
+                    for (int i = 0; i < 4; i++)
+                    {
+                        int digit = Character.digit(next(), 16);
+
+                        if (digit < 0)
+                        {
+                            throw malformed();
+                        }
+
+                        c = c << 4 | digit;
+                    }
+
+                    return (char) c;
+                default:
+                    throw malformed();
+            }
+        }
+
+        private Object integer(long value)
+        {
+            return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (Object) (int) value : value;
+        }
+
+        private Object readNumber()
+        {
+            int start = _position;
+            boolean integral = skipNumber();
+            int length = _position - start;
+
+            // 18 digits always fit in a long
+            if (integral && length <= 18)
+            {
+                long value = 0;
+
+                for (int i = _json[start] == '-' ? start + 1 : start; i < _position; i++)
+                {
+                    value = value * 10 + _json[i] - '0';
+                }
+
+                return integer(_json[start] == '-' ? -value : value);
+            }
+
+            try
+            {
+                String number = new String(_json, start, length, StandardCharsets.US_ASCII);
+
+                if (integral)
+                {
+                    BigInteger value = new BigInteger(number);
+
+                    return value.bitLength() < Long.SIZE ? (Object) value.longValue() : value;
+                }
+
+                return Double.valueOf(number);
+            }
+            catch (NumberFormatException e)
+            {
+                throw malformed();
+            }
+        }
+
+        /**
+         * Skips a number, which must have the form that JSON allows, e.g., no leading zeros, and no leading or
+         * trailing decimal point.
+         *
+         * @return true if the number is an integer, i.e., has no fraction or exponent
+         */
+        private boolean skipNumber()
+        {
+            boolean integral = true;
+
+            tryConsume('-');
+
+            if (!tryConsume('0'))
+            {
+                skipDigits();
+            }
+
+            if (tryConsume('.'))
+            {
+                integral = false;
+                skipDigits();
+            }
+
+            if (tryConsume('e') || tryConsume('E'))
+            {
+                integral = false;
+
+                if (!tryConsume('+'))
+                {
+                    tryConsume('-');
+                }
+
+                skipDigits();
+            }
+
+            return integral;
+        }
+
+        /**
+         * Skips one or more digits.
+         */
+        private void skipDigits()
+        {
+            int start = _position;
+
+            while (_position < _json.length && _json[_position] >= '0' && _json[_position] <= '9')
+            {
+                _position++;
+            }
+
+            if (_position == start)
+            {
+                throw malformed();
+            }
+        }
+
+        private void skipValue(int depth)
+        {
+            switch (peek())
+            {
+                case '"':
+                    skipString();
+                    break;
+                case '{':
+                    skipObject(depth + 1);
+                    break;
+                case '[':
+                    skipArray(depth + 1);
+                    break;
+                case 't':
+                    expectLiteral("true");
+                    break;
+                case 'f':
+                    expectLiteral("false");
+                    break;
+                case 'n':
+                    expectLiteral("null");
+                    break;
+                default:
+                    skipNumber();
+            }
+        }
+
+        private void skipString()
+        {
+            expect('"');
+
+            while (true)
+            {
+                byte b = next();
+
+                if (b == '"')
+                {
+                    return;
+                }
+                else if (b == '\\')
+                {
+                    readEscape();
+                }
+                else if (isControlCharacter(b))
+                {
+                    throw malformed();
+                }
+            }
+        }
+
+        private void skipObject(int depth)
+        {
+            if (depth > MAX_DEPTH)
+            {
+                throw malformed();
+            }
+
+            expect('{');
+            skipWhitespace();
+
+            if (tryConsume('}'))
+            {
+                return;
+            }
+
+            do
+            {
+                skipWhitespace();
+                skipString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                skipValue(depth);
+                skipWhitespace();
+            }
+            while (tryConsume(','));
+
+            expect('}');
+        }
+
+        private void skipArray(int depth)
+        {
+            if (depth > MAX_DEPTH)
+            {
+                throw malformed();
+            }
+
+            expect('[');
+            skipWhitespace();
+
+            if (tryConsume(']'))
+            {
+                return;
+            }
+
+            do
+            {
+                skipWhitespace();
+                skipValue(depth);
+                skipWhitespace();
+            }
+            while (tryConsume(','));
+
+            expect(']');
+        }
+
+        private void expectLiteral(String literal)
+        {
+            for (int i = 0; i < literal.length(); i++)
+            {
+                expect(literal.charAt(i));
+            }
+        }
+
+        private void skipWhitespace()
+        {
+            while (_position < _json.length)
+            {
+                byte b = _json[_position];
+
+                if (b != ' ' && b != '\n' && b != '\r' && b != '\t')
+                {
+                    return;
+                }
+
+                _position++;
+            }
+        }
+
+        private boolean tryConsume(char c)
+        {
+            if (_position < _json.length && _json[_position] == c)
+            {
+                _position++;
+
+                return true;
+            }
+
+            return false;
+        }
+
+        private void expect(char c)
+        {
+            if (!tryConsume(c))
+            {
+                throw malformed();
+            }
+        }
+
+        private byte peek()
+        {
+            if (_position >= _json.length)
+            {
+                throw malformed();
+            }
+
+            return _json[_position];
+        }
+
+        private byte next()
+        {
+            byte b = peek();
+
+            _position++;
+
+            return b;
+        }
+
+        private IllegalArgumentException malformed()
+        {
+            return new IllegalArgumentException("Malformed JSON at offset " + _position);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.client;
+
+/**
+ * The rate limits of GitHub that calls count against, as GitHub names them in the {@code X-RateLimit-Resource} header.
+ * Each has a budget of its own for every user.
+ */
+public enum RateLimitResource
+{
+    CORE("core"),
+    GRAPHQL("graphql");
+
+    private final String _label;
+
+    RateLimitResource(String label)
+    {
+        _label = label;
+    }
+
+    /**
+     * @return the name of the rate limit in GitHub, logs and metrics
+     */
+    public String getLabel()
+    {
+        return _label;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import io.curity.identityserver.plugin.github.cache.ExpiringCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.curity.identityserver.sdk.Nullable;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of the rate limits of GitHub from the headers of its responses.
+ *
+ * <p>GitHub has a primary rate limit per user, which is announced in the {@code X-RateLimit-Remaining} and
+ * {@code X-RateLimit-Reset} headers of every response. It is shared by all the access tokens of the user, and GitHub
+ * issues a new one on every login, so the limits are tracked by the ID of the user. The REST API and the GraphQL API
+ * have separate limits, which are tracked separately, by the {@link RateLimitResource} of the endpoint. On top of
+ * that, secondary rate limits apply to the app as a whole when it makes too many requests too fast. These are
+ * signalled by a 403 or 429 response, usually with a {@code Retry-After} header, and GitHub asks clients not to send
+ * more requests until that time has passed.
+ */
+public final class RateLimitTracker
+{
+    private static final Logger _logger = LoggerFactory.getLogger(RateLimitTracker.class);
+
+    // GitHub asks clients to wait at least a minute after hitting a secondary rate limit that has no Retry-After
+    private static final long DEFAULT_RETRY_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int MAX_TRACKED_USERS = 10000;
+
+    // By the ordinal of the resource
+    private final ExpiringCache<String, Budget>[] _budgetsByUser;
+    private final AtomicLongArray _lastRemaining;
+    private final int _reserve;
+    private final LongAdder _rejectedCalls = new LongAdder();
+    private final LongAdder _shedCalls = new LongAdder();
+    private volatile long _secondaryLimitUntil;
+
+    /**
+     * @param reserve the number of requests of a rate limit to keep for required calls
+     */
+    @SuppressWarnings("unchecked")
+    RateLimitTracker(int reserve)
+    {
+        RateLimitResource[] resources = RateLimitResource.values();
+
+        _reserve = reserve;
+        _budgetsByUser = new ExpiringCache[resources.length];
+        _lastRemaining = new AtomicLongArray(resources.length);
+
+        for (RateLimitResource resource : resources)
+        {
+            _budgetsByUser[resource.ordinal()] = new ExpiringCache<>(MAX_TRACKED_USERS);
+            _lastRemaining.set(resource.ordinal(), -1);
+        }
+    }
+
+    /**
+     * Gets how long to wait before calling an endpoint of GitHub for the given user.
+     *
+     * @param userId the ID of the user that the call is made for, or null if it is not known
+     * @return the number of milliseconds to wait, or 0 if the call can be made now
+     */
+    long getRetryAfterMillis(GitHubEndpoint endpoint, @Nullable String userId)
+    {
+        long now = System.currentTimeMillis();
+        long retryAfter = _secondaryLimitUntil - now;
+
+        if (userId != null)
+        {
+            @Nullable Budget budget = budgetsOf(endpoint).get(userId);
+
+            if (budget != null && budget._remaining <= 0)
+            {
+                retryAfter = Math.max(retryAfter, budget._resetAt - now);
+            }
+        }
+
+        if (retryAfter > 0)
+        {
+            _rejectedCalls.increment();
+
+            return retryAfter;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Checks whether there is enough left of the rate limits to make a call that the login can do without, e.g., to
+     * check a membership that was confirmed before again.
+     *
+     * @param userId the ID of the user that the call would be made for, or null if it is not known
+     */
+    boolean permitsOptionalCall(GitHubEndpoint endpoint, @Nullable String userId)
+    {
+        boolean permitted = _secondaryLimitUntil <= System.currentTimeMillis();
+
+        if (permitted && userId != null)
+        {
+            @Nullable Budget budget = budgetsOf(endpoint).get(userId);
+
+            permitted = budget == null || budget._remaining > _reserve;
+        }
+
+        if (!permitted)
+        {
+            _shedCalls.increment();
+        }
+
+        return permitted;
+    }
+
+    /**
+     * Records the rate limits that GitHub announced in a response.
+     *
+     * @param userId the ID of the user that the call was made for, or null if it is not known
+     * @return true if the response was rejected because of a rate limit
+     */
+    boolean record(GitHubEndpoint endpoint, @Nullable String userId, GitHubResponse response)
+    {
+        long now = System.currentTimeMillis();
+        long remaining = longHeader(response, "X-RateLimit-Remaining").orElse(-1L);
+
+        if (remaining >= 0)
+        {
+            _lastRemaining.set(endpoint.getRateLimitResource().ordinal(), remaining);
+
+            if (userId != null)
+            {
+                recordBudget(endpoint, userId, remaining, response, now);
+            }
+        }
+
+        int statusCode = response.getStatusCode();
+
+        if (statusCode != 403 && statusCode != 429)
+        {
+            return false;
+        }
+
+        Optional<Long> retryAfterSeconds = longHeader(response, "Retry-After");
+
+        if (remaining == 0)
+        {
+            _logger.info("The primary {} rate limit of GitHub was exceeded when calling the {} endpoint",
+                    endpoint.getRateLimitResource().getLabel(), endpoint.getLabel());
+
+            return true;
+        }
+        else if (statusCode == 429 || retryAfterSeconds.isPresent())
+        {
+            long retryAfter = retryAfterSeconds.map(TimeUnit.SECONDS::toMillis).orElse(DEFAULT_RETRY_AFTER_MILLIS);
+
+            _secondaryLimitUntil = Math.max(_secondaryLimitUntil, now + retryAfter);
+            _logger.warn("A secondary rate limit of GitHub was hit when calling the {} endpoint. No more calls " +
+                    "will be made for {} seconds", endpoint.getLabel(), TimeUnit.MILLISECONDS.toSeconds(retryAfter));
+
+            return true;
+        }
+
+        // A plain 403, e.g., because the user is not allowed to see an organization
+        return false;
+    }
+
+    /**
+     * Records the primary rate limit of a user from a response to a call that was made before the ID of the user was
+     * known, e.g., for the user info.
+     */
+    void recordBudget(GitHubEndpoint endpoint, String userId, GitHubResponse response)
+    {
+        long remaining = longHeader(response, "X-RateLimit-Remaining").orElse(-1L);
+
+        if (remaining >= 0)
+        {
+            recordBudget(endpoint, userId, remaining, response, System.currentTimeMillis());
+        }
+    }
+
+    private void recordBudget(GitHubEndpoint endpoint, String userId, long remaining, GitHubResponse response,
+                              long now)
+    {
+        long resetAt = TimeUnit.SECONDS.toMillis(longHeader(response, "X-RateLimit-Reset").orElse(0L));
+
+        // Keep the budget until the limit resets, when GitHub will announce a fresh one
+        budgetsOf(endpoint).put(userId, new Budget(remaining, resetAt), Math.max(resetAt - now, 1));
+    }
+
+    private ExpiringCache<String, Budget> budgetsOf(GitHubEndpoint endpoint)
+    {
+        return _budgetsByUser[endpoint.getRateLimitResource().ordinal()];
+    }
+
+    /**
+     * @return the number of requests, or points of the GraphQL API, that GitHub said were remaining of the rate limit
+     * in the last response that announced it, or -1 if unknown
+     */
+    public long getLastRemaining(RateLimitResource resource)
+    {
+        return _lastRemaining.get(resource.ordinal());
+    }
+
+    public boolean isSecondaryLimitActive()
+    {
+        return _secondaryLimitUntil > System.currentTimeMillis();
+    }
+
+    /**
+     * @return the number of calls that were rejected without calling GitHub because of a rate limit
+     */
+    public long getRejectedCalls()
+    {
+        return _rejectedCalls.sum();
+    }
+
+    /**
+     * @return the number of optional calls that were skipped to save the rate limit
+     */
+    public long getShedCalls()
+    {
+        return _shedCalls.sum();
+    }
+
+    private static Optional<Long> longHeader(GitHubResponse response, String name)
+    {
+        return response.getHeader(name).flatMap(value ->
+        {
+            try
+            {
+                return Optional.of(Long.parseLong(value.trim()));
+            }
+            catch (NumberFormatException e)
+            {
+                return Optional.empty();
+            }
+        });
+    }
+
+    private static final class Budget
+    {
+        private final long _remaining;
+        private final long _resetAt;
+
+        private Budget(long remaining, long resetAt)
+        {
+            _remaining = remaining;
+            _resetAt = resetAt;
+        }
+    }
+}
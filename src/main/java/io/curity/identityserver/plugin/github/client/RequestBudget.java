@@ -0,0 +1,89 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A budget for extra requests, such as hedges, that is earned as a percentage of the ordinary requests.
+ *
+ * <p>Every ordinary request deposits a fraction of a request into the budget, and every extra request withdraws a
+ * whole one, so the extra requests stay below that percentage however badly GitHub is doing. The balance is capped,
+ * which allows a short burst of extra requests after a quiet period but no more.
+ */
+final class RequestBudget
+{
+    // The balance is kept in thousandths of a request, so that it can be updated atomically
+    private static final long UNIT = 1000;
+
+    private final long _deposit;
+    private final long _maximumBalance;
+    private final AtomicLong _balance;
+
+    /**
+     * @param percentage     the percentage of the ordinary requests that may be made as extra requests
+     * @param maximumBalance the number of extra requests that can be saved up
+     */
+    RequestBudget(int percentage, int maximumBalance)
+    {
+        _deposit = UNIT * percentage / 100;
+        _maximumBalance = UNIT * maximumBalance;
+        _balance = new AtomicLong(_maximumBalance);
+    }
+
+    /**
+     * Earns the share of an ordinary request.
+     */
+    void deposit()
+    {
+        long balance;
+
+        do
+        {
+            balance = _balance.get();
+
+            if (balance >= _maximumBalance)
+            {
+                return;
+            }
+        }
+        while (!_balance.compareAndSet(balance, Math.min(_maximumBalance, balance + _deposit)));
+    }
+
+    /**
+     * Spends the budget of an extra request.
+     *
+     * @return true if there was enough left for the request to be made
+     */
+    boolean tryWithdraw()
+    {
+        long balance;
+
+        do
+        {
+            balance = _balance.get();
+
+            if (balance < UNIT)
+            {
+                return false;
+            }
+        }
+        while (!_balance.compareAndSet(balance, balance - UNIT));
+
+        return true;
+    }
+}
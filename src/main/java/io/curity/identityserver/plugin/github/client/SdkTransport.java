@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import se.curity.identityserver.sdk.Nullable;
+import se.curity.identityserver.sdk.http.HttpRequest;
+import se.curity.identityserver.sdk.service.WebServiceClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static se.curity.identityserver.sdk.http.HttpRequest.createFormUrlEncodedBodyProcessor;
+
+/**
+ * Sends requests with the web service clients of the server.
+ */
+final class SdkTransport implements GitHubTransport
+{
+    private final GitHubClients _clients;
+
+    SdkTransport(GitHubClients clients)
+    {
+        _clients = clients;
+    }
+
+    @Override
+    public GitHubResponse send(GitHubRequest request)
+    {
+        HttpRequest.Builder builder = client(request).request().accept("application/json");
+
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet())
+        {
+            builder = builder.header(header.getKey(), header.getValue());
+        }
+
+        @Nullable Map<String, String> form = request.getForm();
+        @Nullable String json = request.getJson();
+        HttpRequest httpRequest;
+
+        if (form != null)
+        {
+            httpRequest = builder.contentType("application/x-www-form-urlencoded")
+                    .body(createFormUrlEncodedBodyProcessor(form))
+                    .post();
+        }
+        else if (json != null)
+        {
+            httpRequest = builder.contentType("application/json")
+                    .body(HttpRequest.fromString(json, StandardCharsets.UTF_8))
+                    .post();
+        }
+        else
+        {
+            httpRequest = builder.get();
+        }
+
+        return GitHubResponse.of(httpRequest.response());
+    }
+
+    private WebServiceClient client(GitHubRequest request)
+    {
+        // The clients of the endpoints with fixed paths are created up front
+        switch (request.getEndpoint())
+        {
+            case ACCESS_TOKEN:
+                return _clients.getTokenClient();
+            case USER:
+                return _clients.getUserClient();
+            case USER_EMAILS:
+                return _clients.getEmailsClient();
+            case ORGANIZATION_MEMBERSHIP:
+                return _clients.getMembershipClient();
+            case GRAPHQL:
+                return _clients.getGraphQlClient();
+            default:
+                return _clients.getApiClient(request.getPath());
+        }
+    }
+
+    @Override
+    public void checkConfiguration()
+    {
+        _clients.checkConfiguration();
+    }
+}
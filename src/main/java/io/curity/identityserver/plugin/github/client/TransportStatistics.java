@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the requests of a transport and the connections that it opened for them, so that it shows how well the
+ * connections are kept open between requests.
+ */
+public final class TransportStatistics implements TransportStatisticsMXBean
+{
+    private final LongAdder _requests = new LongAdder();
+    private final LongAdder _connections = new LongAdder();
+    private final LongAdder _http2Responses = new LongAdder();
+
+    public void recordConnection()
+    {
+        _connections.increment();
+    }
+
+    public void recordResponse(boolean http2)
+    {
+        _requests.increment();
+
+        if (http2)
+        {
+            _http2Responses.increment();
+        }
+    }
+
+    @Override
+    public long getRequests()
+    {
+        return _requests.sum();
+    }
+
+    @Override
+    public long getConnections()
+    {
+        return _connections.sum();
+    }
+
+    @Override
+    public long getRequestsOnOpenConnections()
+    {
+        // Connections may be counted before the requests that opened them are
+        return Math.max(getRequests() - getConnections(), 0);
+    }
+
+    @Override
+    public long getHttp2Responses()
+    {
+        return _http2Responses.sum();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+/**
+ * The use of the connections of a transport to GitHub, as published over JMX.
+ *
+ * <p>A connection is counted when its TLS engine is created, before its handshake, so full and resumed handshakes
+ * are counted alike and can't be told apart here. These statistics show how well connections are kept open, not how
+ * well TLS sessions are resumed.
+ */
+public interface TransportStatisticsMXBean
+{
+    long getRequests();
+
+    /**
+     * @return the number of connections that were opened, each with a TLS handshake, full or resumed
+     */
+    long getConnections();
+
+    /**
+     * @return the number of requests that didn't open a connection, i.e., the requests less the connections. This
+     * says nothing about whether the connections that were opened resumed a TLS session.
+     */
+    long getRequestsOnOpenConnections();
+
+    long getHttp2Responses();
+}
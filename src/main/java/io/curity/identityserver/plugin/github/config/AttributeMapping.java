@@ -0,0 +1,82 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A field of the GitHub user and the name of the attribute that it becomes, as given in the
+ * {@link GitHubAuthenticatorPluginConfig#getSubjectAttributes() Subject Attributes} and
+ * {@link GitHubAuthenticatorPluginConfig#getContextAttributes() Context Attributes} settings.
+ */
+public final class AttributeMapping
+{
+    private final String _field;
+    private final String _attributeName;
+
+    private AttributeMapping(String field, String attributeName)
+    {
+        _field = field;
+        _attributeName = attributeName;
+    }
+
+    /**
+     * @param entry the name of a field, or field=attribute to name the attribute differently
+     * @throws IllegalArgumentException if the field or the attribute name is missing
+     */
+    public static AttributeMapping parse(String entry)
+    {
+        int separator = entry.indexOf('=');
+        String field = (separator < 0 ? entry : entry.substring(0, separator)).trim();
+        String attributeName = separator < 0 ? field : entry.substring(separator + 1).trim();
+
+        if (field.isEmpty() || attributeName.isEmpty())
+        {
+            throw new IllegalArgumentException(String.format(
+                    "Attribute '%s' is not given as field or field=attribute", entry));
+        }
+
+        return new AttributeMapping(field, attributeName);
+    }
+
+    /**
+     * @throws IllegalArgumentException if any of the entries is not given as field or field=attribute
+     */
+    public static List<AttributeMapping> parseAll(List<String> entries)
+    {
+        List<AttributeMapping> mappings = new ArrayList<>(entries.size());
+
+        for (String entry : entries)
+        {
+            mappings.add(parse(entry));
+        }
+
+        return Collections.unmodifiableList(mappings);
+    }
+
+    public String getField()
+    {
+        return _field;
+    }
+
+    public String getAttributeName()
+    {
+        return _attributeName;
+    }
+}
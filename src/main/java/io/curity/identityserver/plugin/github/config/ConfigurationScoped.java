@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A value that is derived from a configuration once and then shared by all requests that use that configuration.
+ *
+ * <p>Values are kept per authenticator instance. When the configuration of an instance changes, the server creates
+ * a new configuration object and the value is derived again from that one on its first use.
+ *
+ * @param <T> the type of the derived value
+ */
+public final class ConfigurationScoped<T>
+{
+    private final Function<? super GitHubAuthenticatorPluginConfig, ? extends T> _factory;
+    private final Map<String, Holder<T>> _values = new ConcurrentHashMap<>();
+
+    public ConfigurationScoped(Function<? super GitHubAuthenticatorPluginConfig, ? extends T> factory)
+    {
+        _factory = factory;
+    }
+
+    public T get(GitHubAuthenticatorPluginConfig config)
+    {
+        Holder<T> holder = _values.get(config.id());
+
+        if (holder == null || holder._config != config)
+        {
+            holder = _values.compute(config.id(), (id, existing) -> existing != null && existing._config == config
+                    ? existing
+                    : new Holder<>(config, _factory.apply(config)));
+        }
+
+        return holder._value;
+    }
+
+    private static final class Holder<T>
+    {
+        private final GitHubAuthenticatorPluginConfig _config;
+        private final T _value;
+
+        private Holder(GitHubAuthenticatorPluginConfig config, T value)
+        {
+            _config = config;
+            _value = value;
+        }
+    }
+}
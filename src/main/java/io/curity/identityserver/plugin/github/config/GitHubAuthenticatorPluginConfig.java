@@ -19,6 +19,7 @@ package io.curity.identityserver.plugin.github.config;
 import se.curity.identityserver.sdk.config.Configuration;
 import se.curity.identityserver.sdk.config.annotation.DefaultBoolean;
 import se.curity.identityserver.sdk.config.annotation.DefaultEnum;
+import se.curity.identityserver.sdk.config.annotation.DefaultInteger;
 import se.curity.identityserver.sdk.config.annotation.Description;
 import se.curity.identityserver.sdk.service.ExceptionFactory;
 import se.curity.identityserver.sdk.service.HttpClient;
@@ -27,6 +28,7 @@ import se.curity.identityserver.sdk.service.SessionManager;
 import se.curity.identityserver.sdk.service.WebServiceClientFactory;
 import se.curity.identityserver.sdk.service.authentication.AuthenticatorInformationProvider;
 
+import java.util.List;
 import java.util.Optional;
 
 @SuppressWarnings("InterfaceNeverImplemented")
@@ -56,6 +58,34 @@ public interface GitHubAuthenticatorPluginConfig extends Configuration
         @Description("The level of access to the organization's data that the application requires")
         @DefaultEnum("READ")
         Access getAccess();
+
+        @Description("How to check that the user is a member of the organization. MEMBERS looks the user up among " +
+                "the members of the organization once the user info has been fetched. AUTHENTICATED_USER fetches " +
+                "the membership of the authenticated user at the same time as the user info, which saves a round " +
+                "trip to GitHub and also provides the role of the user in the organization.")
+        @DefaultEnum("MEMBERS")
+        MembershipCheck getMembershipCheck();
+
+        @Description("The number of seconds to remember that a user is a member of the organization, so that " +
+                "logins within that time do not look the user up again. Users that are removed from the " +
+                "organization can still log in for this long, so it is 0, i.e., off, unless it is set. Only used " +
+                "when the membership check is MEMBERS.")
+        @DefaultInteger(0)
+        int getMembershipCacheTimeToLive();
+
+        @Description("The number of seconds to remember that a user is not a member of the organization. Only used " +
+                "when the membership check is MEMBERS; 0 turns it off.")
+        @DefaultInteger(60)
+        int getNonMembershipCacheTimeToLive();
+
+        @Description("The maximum number of users whose membership of the organization is remembered")
+        @DefaultInteger(10000)
+        int getMembershipCacheSize();
+    }
+
+    enum MembershipCheck
+    {
+        MEMBERS, AUTHENTICATED_USER
     }
 
     @Description("Enable the application to manage repositories in GitHub")
@@ -114,7 +144,9 @@ public interface GitHubAuthenticatorPluginConfig extends Configuration
 
     interface ManageUser
     {
-        @Description("Request a scope (user:email) that grants read access to a user's email addresses")
+        @Description("Request a scope (user:email) that grants read access to a user's email addresses. When it " +
+                "is granted, the verified primary email address of the user is fetched along with the user info " +
+                "and used as its email.")
         @DefaultBoolean(false)
         boolean isEmailAccess();
 
@@ -131,6 +163,182 @@ public interface GitHubAuthenticatorPluginConfig extends Configuration
     @DefaultEnum("NONE")
     Access getGpgKeysAccess();
 
+    @Description("Reject the login if the user did not grant all of the requested scopes. When not set, the scopes " +
+            "that were not granted are given in the missing_scopes context attribute instead.")
+    @DefaultBoolean(false)
+    boolean isRequireAllScopes();
+
+    @Description("The number of seconds to keep the user info and the primary email address of a user after a " +
+            "login, so that GitHub can be asked whether they have changed rather than sending them again when the " +
+            "user logs in again in the same browser session. 0 turns it off.")
+    @DefaultInteger(3600)
+    int getUserInfoCacheTimeToLive();
+
+    @Description("The maximum number of users whose user info is kept")
+    @DefaultInteger(5000)
+    int getUserInfoCacheSize();
+
+    @Description("Where the state of a login is kept until the user returns from GitHub. SESSION puts it in the " +
+            "session. SIGNED signs it instead, with a key derived from the client secret, and binds it to the " +
+            "session ID, so that starting a login doesn't write to the session.")
+    @DefaultEnum("SESSION")
+    StateMode getStateMode();
+
+    enum StateMode
+    {
+        SESSION, SIGNED
+    }
+
+    @Description("The number of seconds that a signed state is valid, i.e., that the user has to log in with GitHub")
+    @DefaultInteger(600)
+    int getSignedStateTimeToLive();
+
+    @Description("The maximum number of used signed states that are remembered until they expire, so that they " +
+            "can't be used again. They are remembered by each node on its own. Anyone can obtain states by starting " +
+            "logins, so when a node remembers this many, it forgets the state that expires soonest instead of " +
+            "rejecting logins, and that state could then be used again with the same session until it expires. " +
+            "It should therefore be at least the time to live times the most logins per second that the node " +
+            "handles.")
+    @DefaultInteger(50000)
+    int getSignedStateReplayCacheSize();
+
+    @Description("The fields of the GitHub user that become subject attributes, each given as the name of the field " +
+            "or as field=attribute to name the attribute differently, e.g., id=github_id. When empty, all the fields " +
+            "of the user that are not objects are used, including the URLs of the GitHub API.")
+    List<String> getSubjectAttributes();
+
+    @Description("The fields of the GitHub user that become context attributes, given like the subject attributes. " +
+            "When empty, created_at, updated_at and type=user_type are used.")
+    List<String> getContextAttributes();
+
+    @Description("The number of requests of the rate limit of GitHub to keep for the calls that a login cannot do " +
+            "without. Once fewer are left, optional calls, such as checking again that a user is still a member of " +
+            "the organization, are skipped.")
+    @DefaultInteger(100)
+    int getRateLimitReserve();
+
+    @Description("The maximum number of calls to GitHub that are made at once. The limit starts out at this and is " +
+            "then learned from how fast GitHub answers, and logins that would exceed it fail right away so that " +
+            "they can be retried. A login makes up to 3 calls at once. 0, the default, turns the limit off.")
+    @DefaultInteger(0)
+    int getMaxConcurrentCalls();
+
+    @Description("The number of calls to GitHub that are always allowed at once, however slowly GitHub answers. " +
+            "It is at least 3, and a lower maximum is raised to it.")
+    @DefaultInteger(3)
+    int getMinConcurrentCalls();
+
+    @Description("The number of seconds that the calls to GitHub of a login may take, including retries. A " +
+            "request is not retried if it could not be answered in time.")
+    @DefaultInteger(10)
+    int getLoginTimeBudget();
+
+    @Description("The number of times that a request for the user info or the organization membership is sent " +
+            "again when GitHub answers with 502, 503 or 504 or the connection fails. 0 turns retries off.")
+    @DefaultInteger(2)
+    int getMaxRetries();
+
+    @Description("The maximum percentage of the requests for the user info or the organization membership that are " +
+            "retried, so that retries don't add much load when GitHub is already struggling")
+    @DefaultInteger(10)
+    int getRetryBudget();
+
+    @Description("Send the request for the user info again if GitHub has not answered it within the time that " +
+            "most such requests take, and use whichever answer comes first")
+    @DefaultBoolean(false)
+    boolean isHedgeUserInfoRequests();
+
+    @Description("The percentile of the time that recent user info requests took after which a request is sent " +
+            "again, when hedging them")
+    @DefaultInteger(95)
+    int getHedgePercentile();
+
+    @Description("The maximum percentage of the user info requests that are sent again, when hedging them")
+    @DefaultInteger(5)
+    int getHedgeBudget();
+
+    @Description("The number of times that the code is sent to the token endpoint again when no connection to " +
+            "GitHub could be made. Other failures are not retried, since the code can only be used once.")
+    @DefaultInteger(1)
+    int getTokenConnectRetries();
+
+    @Description("The number of most recent calls to each GitHub endpoint that decide whether its circuit breaker " +
+            "opens, after which logins fail right away instead of calling GitHub. 0 turns the circuit breakers off.")
+    @DefaultInteger(20)
+    int getCircuitBreakerWindowSize();
+
+    @Description("The number of calls to an endpoint that must have been made before its circuit breaker can open")
+    @DefaultInteger(10)
+    int getCircuitBreakerMinimumCalls();
+
+    @Description("The percentage of calls to an endpoint that must have failed for its circuit breaker to open")
+    @DefaultInteger(50)
+    int getCircuitBreakerFailureRateThreshold();
+
+    @Description("The number of milliseconds after which a call to GitHub is considered slow")
+    @DefaultInteger(3000)
+    int getCircuitBreakerSlowCallDuration();
+
+    @Description("The percentage of calls to an endpoint that must have been slow for its circuit breaker to open")
+    @DefaultInteger(80)
+    int getCircuitBreakerSlowCallRateThreshold();
+
+    @Description("The number of seconds that a circuit breaker stays open before it lets calls through again to " +
+            "probe whether GitHub has recovered")
+    @DefaultInteger(30)
+    int getCircuitBreakerOpenDuration();
+
+    @Description("The number of probe calls that must succeed for a circuit breaker to close again")
+    @DefaultInteger(3)
+    int getCircuitBreakerProbeCalls();
+
+    @Description("How requests are sent to GitHub. SDK uses the web service clients of the server and the HTTP " +
+            "client that is configured, if any. JDK_HTTP_CLIENT uses the HTTP client of Java 11 and later, which " +
+            "keeps the connections to GitHub open, sends concurrent requests over one HTTP/2 connection and " +
+            "resumes TLS sessions. It ignores the HTTP Client setting, including its proxy, and uses the proxy " +
+            "settings of the JVM instead, e.g., the https.proxyHost and https.proxyPort system properties. On Java " +
+            "8, SDK is used instead.")
+    @DefaultEnum("SDK")
+    Transport getTransport();
+
+    enum Transport
+    {
+        SDK, JDK_HTTP_CLIENT
+    }
+
+    @Description("Warm the authenticator up as soon as it is first used, e.g., by a readiness probe of its ready " +
+            "endpoint, by connecting to GitHub without sending a request and running the code of a login on " +
+            "made-up responses until it is compiled, so that the first logins after a restart are not slower than " +
+            "the rest. Only the JDK_HTTP_CLIENT transport resumes the TLS sessions of those connections; the SDK " +
+            "transport opens connections of its own, so for it connecting only looks the hosts of GitHub up and " +
+            "loads the TLS code. The ready endpoint answers with 503 until it is done, and the warm gauge of the " +
+            "metrics shows it too.")
+    @DefaultBoolean(false)
+    boolean isWarmUp();
+
+    @Description("Which API of GitHub the user info and the membership of the organization are fetched from. REST " +
+            "fetches the user info and, if an organization is configured, checks the membership with another " +
+            "request. GRAPHQL fetches exactly the fields of the user that become attributes in a single request, " +
+            "together with the membership when it is checked for the authenticated user; other checks use the " +
+            "members endpoint of the REST API and its cache. GRAPHQL can't provide the URLs of the REST API nor " +
+            "gravatar_id, the user info it fetches is not cached, and its requests count against the separate " +
+            "rate limit of the GraphQL API.")
+    @DefaultEnum("REST")
+    UserInfoApi getUserInfoApi();
+
+    enum UserInfoApi
+    {
+        REST, GRAPHQL
+    }
+
+    @Description("Serve the metrics of the authenticator in the text format of Prometheus on its metrics endpoint, " +
+            "e.g., /authn/authentication/github1/metrics. The endpoint is forbidden when this is not set. It " +
+            "doesn't authenticate its callers, and it shows the outcomes of logins, the latencies of GitHub and " +
+            "how much of the rate limits of GitHub is left, so only expose it where the metrics may be read, e.g., " +
+            "by restricting the path in a reverse proxy in front of the server.")
+    @DefaultBoolean(false)
+    boolean isMetricsEndpointEnabled();
+
     // Services that don't require any configuration
 
     Json getJson();
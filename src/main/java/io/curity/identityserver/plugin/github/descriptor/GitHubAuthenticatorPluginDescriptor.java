@@ -18,6 +18,8 @@ package io.curity.identityserver.plugin.github.descriptor;
 
 import io.curity.identityserver.plugin.github.authentication.CallbackRequestHandler;
 import io.curity.identityserver.plugin.github.authentication.GitHubAuthenticatorRequestHandler;
+import io.curity.identityserver.plugin.github.authentication.MetricsRequestHandler;
+import io.curity.identityserver.plugin.github.authentication.ReadinessRequestHandler;
 import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
 import se.curity.identityserver.sdk.authentication.AuthenticatorRequestHandler;
 import se.curity.identityserver.sdk.plugin.descriptor.AuthenticatorPluginDescriptor;
@@ -25,11 +27,14 @@ import se.curity.identityserver.sdk.plugin.descriptor.AuthenticatorPluginDescrip
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 public final class GitHubAuthenticatorPluginDescriptor
         implements AuthenticatorPluginDescriptor<GitHubAuthenticatorPluginConfig>
 {
     public final static String CALLBACK = "callback";
+    public final static String METRICS = "metrics";
+    public final static String READY = "ready";
 
     @Override
     public String getPluginImplementationType()
@@ -46,11 +51,19 @@ public final class GitHubAuthenticatorPluginDescriptor
     @Override
     public Map<String, Class<? extends AuthenticatorRequestHandler<?>>> getAuthenticationRequestHandlerTypes()
     {
-        Map<String, Class<? extends AuthenticatorRequestHandler<?>>> handlers = new LinkedHashMap<>(2);
+        Map<String, Class<? extends AuthenticatorRequestHandler<?>>> handlers = new LinkedHashMap<>(4);
 
         handlers.put("index", GitHubAuthenticatorRequestHandler.class);
         handlers.put(CALLBACK, CallbackRequestHandler.class);
+        handlers.put(METRICS, MetricsRequestHandler.class);
+        handlers.put(READY, ReadinessRequestHandler.class);
 
         return Collections.unmodifiableMap(handlers);
     }
+
+    @Override
+    public Optional<ValidatedConfiguration> createManagedObject(GitHubAuthenticatorPluginConfig configuration)
+    {
+        return Optional.of(new ValidatedConfiguration(configuration));
+    }
 }
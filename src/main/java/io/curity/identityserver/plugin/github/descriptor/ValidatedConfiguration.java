@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.descriptor;
+
+import io.curity.identityserver.plugin.github.config.AttributeMapping;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import se.curity.identityserver.sdk.plugin.ManagedObject;
+
+import java.util.List;
+
+/**
+ * Checks the settings of an authenticator instance that can't be checked by their types alone when its
+ * configuration is loaded, so that mistakes are reported then rather than when users log in.
+ */
+public final class ValidatedConfiguration extends ManagedObject<GitHubAuthenticatorPluginConfig>
+{
+    /**
+     * @throws IllegalArgumentException if a setting is invalid
+     */
+    ValidatedConfiguration(GitHubAuthenticatorPluginConfig configuration)
+    {
+        super(configuration);
+
+        validateAttributeMappings("Subject Attributes", configuration.getSubjectAttributes());
+        validateAttributeMappings("Context Attributes", configuration.getContextAttributes());
+    }
+
+    private static void validateAttributeMappings(String setting, List<String> entries)
+    {
+        try
+        {
+            AttributeMapping.parseAll(entries);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException(setting + ": " + e.getMessage(), e);
+        }
+    }
+}
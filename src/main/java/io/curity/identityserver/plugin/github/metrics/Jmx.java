@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publishes the MBeans of the plugin on the platform MBean server.
+ */
+public final class Jmx
+{
+    private static final Logger _logger = LoggerFactory.getLogger(Jmx.class);
+    private static final String DOMAIN = "io.curity.identityserver.plugin.github";
+
+    private Jmx()
+    {
+    }
+
+    /**
+     * Registers an MBean for an authenticator instance, replacing the one that was registered for the same instance
+     * before, e.g., when the configuration of the instance has changed.
+     *
+     * <p>Failures are logged, but otherwise ignored, since the MBeans are only used for monitoring.
+     *
+     * @param type            the type of the MBean, e.g., MembershipCache
+     * @param authenticatorId the ID of the authenticator instance
+     * @param mbean           the MBean
+     */
+    public static void register(String type, String authenticatorId, Object mbean)
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try
+        {
+            ObjectName name = new ObjectName(DOMAIN + ":type=" + type + ",authenticator=" +
+                    ObjectName.quote(authenticatorId));
+
+            synchronized (Jmx.class)
+            {
+                if (server.isRegistered(name))
+                {
+                    server.unregisterMBean(name);
+                }
+
+                server.registerMBean(mbean, name);
+            }
+        }
+        catch (JMException e)
+        {
+            _logger.warn("Could not register the {} MBean of the authenticator {}", type, authenticatorId, e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies with log-linear buckets, like HdrHistogram.
+ *
+ * <p>Latencies are recorded in microseconds. Each power of two is split into 16 buckets of equal width, so a bucket
+ * is at most 6.25% wider than its lower bound, from 1 microsecond up to about 19 hours. Recording is a few atomic
+ * additions and doesn't allocate, so the histograms can stay on in production.
+ */
+public final class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 36;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray _buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder _count = new LongAdder();
+    private final LongAdder _sumMicros = new LongAdder();
+    private final AtomicLong _maxMicros = new AtomicLong();
+
+    public void record(long elapsedNanos)
+    {
+        long micros = Math.min(MAX_VALUE, Math.max(0, TimeUnit.NANOSECONDS.toMicros(elapsedNanos)));
+
+        _buckets.incrementAndGet(bucketOf(micros));
+        _count.increment();
+        _sumMicros.add(micros);
+
+        long max;
+
+        do
+        {
+            max = _maxMicros.get();
+        }
+        while (micros > max && !_maxMicros.compareAndSet(max, micros));
+    }
+
+    static int bucketOf(long micros)
+    {
+        if (micros < SUB_BUCKETS)
+        {
+            return (int) micros;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the smallest number of microseconds that is larger than all values of the bucket
+     */
+    static long upperBoundOf(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket + 1;
+        }
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+
+        return (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    long getBucketCount(int bucket)
+    {
+        return _buckets.get(bucket);
+    }
+
+    public long getCount()
+    {
+        return _count.sum();
+    }
+
+    public long getSumMicros()
+    {
+        return _sumMicros.sum();
+    }
+
+    public long getMaxMicros()
+    {
+        return _maxMicros.get();
+    }
+
+    /**
+     * Gets a percentile of the recorded latencies. Since the buckets are counted while this is computed, the result
+     * is approximate while latencies are being recorded.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket of the percentile in microseconds, or 0 if nothing was recorded
+     */
+    public long getPercentileMicros(double percentile)
+    {
+        long count = getCount();
+
+        if (count == 0)
+        {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+
+        for (int bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            seen += _buckets.get(bucket);
+
+            if (seen >= rank)
+            {
+                return Math.min(upperBoundOf(bucket), getMaxMicros());
+            }
+        }
+
+        return getMaxMicros();
+    }
+}
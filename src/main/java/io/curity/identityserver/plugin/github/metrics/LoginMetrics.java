@@ -0,0 +1,169 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.metrics;
+
+import io.curity.identityserver.plugin.github.config.ConfigurationScoped;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The latencies of the phases and the outcomes of the logins of an authenticator instance.
+ */
+public final class LoginMetrics implements LoginMetricsMXBean
+{
+    private static final ConfigurationScoped<LoginMetrics> _metricsByConfiguration =
+            new ConfigurationScoped<>(LoginMetrics::create);
+
+    private final LatencyHistogram[] _phaseLatencies = new LatencyHistogram[Phase.values().length];
+    private final LongAdder[] _outcomeCounts = new LongAdder[Outcome.values().length];
+    private volatile boolean _warm;
+
+    private LoginMetrics()
+    {
+        for (int i = 0; i < _phaseLatencies.length; i++)
+        {
+            _phaseLatencies[i] = new LatencyHistogram();
+        }
+
+        for (int i = 0; i < _outcomeCounts.length; i++)
+        {
+            _outcomeCounts[i] = new LongAdder();
+        }
+    }
+
+    private static LoginMetrics create(GitHubAuthenticatorPluginConfig config)
+    {
+        LoginMetrics metrics = new LoginMetrics();
+
+        Jmx.register("LoginMetrics", config.id(), metrics);
+
+        return metrics;
+    }
+
+    public static LoginMetrics of(GitHubAuthenticatorPluginConfig config)
+    {
+        return _metricsByConfiguration.get(config);
+    }
+
+    /**
+     * Records the latency of a phase that started at the given time.
+     *
+     * @param phase the phase
+     * @param start when the phase started, as a value of {@link System#nanoTime()}
+     */
+    public void recordPhase(Phase phase, long start)
+    {
+        _phaseLatencies[phase.ordinal()].record(System.nanoTime() - start);
+    }
+
+    public void recordOutcome(Outcome outcome)
+    {
+        _outcomeCounts[outcome.ordinal()].increment();
+    }
+
+    /**
+     * Marks the authenticator instance as warmed up.
+     */
+    public void markWarm()
+    {
+        _warm = true;
+    }
+
+    @Override
+    public boolean isWarm()
+    {
+        return _warm;
+    }
+
+    public LatencyHistogram getPhaseLatencies(Phase phase)
+    {
+        return _phaseLatencies[phase.ordinal()];
+    }
+
+    public long getOutcomeCount(Outcome outcome)
+    {
+        return _outcomeCounts[outcome.ordinal()].sum();
+    }
+
+    @Override
+    public Map<String, Long> getOutcomeCounts()
+    {
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        for (Outcome outcome : Outcome.values())
+        {
+            counts.put(outcome.getLabel(), getOutcomeCount(outcome));
+        }
+
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseCounts()
+    {
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        for (Phase phase : Phase.values())
+        {
+            counts.put(phase.getLabel(), getPhaseLatencies(phase).getCount());
+        }
+
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMeanMillis()
+    {
+        return perPhase(histogram -> histogram.getCount() == 0
+                ? 0
+                : histogram.getSumMicros() / (histogram.getCount() * 1000.0));
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMedianMillis()
+    {
+        return perPhase(histogram -> histogram.getPercentileMicros(50) / 1000.0);
+    }
+
+    @Override
+    public Map<String, Double> getPhase99thPercentileMillis()
+    {
+        return perPhase(histogram -> histogram.getPercentileMicros(99) / 1000.0);
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMaxMillis()
+    {
+        return perPhase(histogram -> histogram.getMaxMicros() / 1000.0);
+    }
+
+    private Map<String, Double> perPhase(ToDoubleFunction<LatencyHistogram> statistic)
+    {
+        Map<String, Double> values = new LinkedHashMap<>();
+
+        for (Phase phase : Phase.values())
+        {
+            values.put(phase.getLabel(), statistic.applyAsDouble(getPhaseLatencies(phase)));
+        }
+
+        return values;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.metrics;
+
+import java.util.Map;
+
+/**
+ * The statistics of the logins of an authenticator instance, as published over JMX. The maps are keyed by the
+ * labels of the outcomes and phases.
+ */
+public interface LoginMetricsMXBean
+{
+    Map<String, Long> getOutcomeCounts();
+
+    Map<String, Long> getPhaseCounts();
+
+    Map<String, Double> getPhaseMeanMillis();
+
+    Map<String, Double> getPhaseMedianMillis();
+
+    Map<String, Double> getPhase99thPercentileMillis();
+
+    Map<String, Double> getPhaseMaxMillis();
+
+    /**
+     * @return true once the warm-up of the authenticator instance has finished
+     */
+    boolean isWarm();
+}
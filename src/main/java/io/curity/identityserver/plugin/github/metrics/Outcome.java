@@ -0,0 +1,56 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.metrics;
+
+/**
+ * How a login ended.
+ */
+public enum Outcome
+{
+    SUCCESS("success"),
+    /**
+     * The user did not consent at GitHub
+     */
+    ACCESS_DENIED("access_denied"),
+    /**
+     * The state in the callback didn't match the one of the session
+     */
+    BAD_STATE("bad_state"),
+    /**
+     * GitHub failed or could not be called
+     */
+    UPSTREAM_ERROR("upstream_error"),
+    /**
+     * The user is not allowed to log in, i.e., is not a member of the organization or didn't grant all scopes
+     */
+    FORBIDDEN("forbidden");
+
+    private final String _label;
+
+    Outcome(String label)
+    {
+        _label = label;
+    }
+
+    /**
+     * @return the name of the outcome in metrics
+     */
+    public String getLabel()
+    {
+        return _label;
+    }
+}
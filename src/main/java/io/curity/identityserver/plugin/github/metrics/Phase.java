@@ -0,0 +1,47 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.metrics;
+
+/**
+ * The phases of a login whose latencies are measured and traced.
+ */
+public enum Phase
+{
+    REDIRECT("redirect"),
+    CALLBACK("callback"),
+    VALIDATE_STATE("validate_state"),
+    REDEEM_CODE("redeem_code"),
+    USER_INFO("user_info"),
+    USER_EMAILS("user_emails"),
+    MEMBERSHIP_CHECK("membership_check"),
+    ATTRIBUTES("attributes");
+
+    private final String _label;
+
+    Phase(String label)
+    {
+        _label = label;
+    }
+
+    /**
+     * @return the name of the phase in metrics
+     */
+    public String getLabel()
+    {
+        return _label;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.metrics;
+
+import io.curity.identityserver.plugin.github.client.GitHubCalls;
+import io.curity.identityserver.plugin.github.client.GitHubEndpoint;
+import io.curity.identityserver.plugin.github.client.RateLimitResource;
+import io.curity.identityserver.plugin.github.config.ConfigurationScoped;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import se.curity.identityserver.sdk.Nullable;
+
+/**
+ * Renders the metrics of an authenticator instance in the text format of Prometheus.
+ *
+ * <p>The metrics are read from the counters and histograms that are kept anyway, and written into a buffer that is
+ * reused for every scrape. The latency histograms are reduced to a fixed set of buckets, whose counts are
+ * approximate since the histograms' own buckets don't line up with them exactly.
+ */
+public final class PrometheusExposition
+{
+    private static final ConfigurationScoped<PrometheusExposition> _expositionsByConfiguration =
+            new ConfigurationScoped<>(PrometheusExposition::new);
+
+    private static final String PREFIX = "github_authenticator_";
+    private static final long[] BUCKET_BOUNDS_MICROS = {
+            5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000
+    };
+    private static final String[] BUCKET_LABELS = {
+            "0.005", "0.01", "0.025", "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"
+    };
+    // For each bucket bound, the number of the histogram buckets that lie below it
+    private static final int[] HISTOGRAM_BUCKETS_BELOW = new int[BUCKET_BOUNDS_MICROS.length];
+
+    static
+    {
+        for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++)
+        {
+            int buckets = 0;
+
+            while (buckets < LatencyHistogram.BUCKETS &&
+                    LatencyHistogram.upperBoundOf(buckets) <= BUCKET_BOUNDS_MICROS[i])
+            {
+                buckets++;
+            }
+
+            HISTOGRAM_BUCKETS_BELOW[i] = buckets;
+        }
+    }
+
+    private final String _authenticatorLabel;
+    private final LoginMetrics _loginMetrics;
+    private final GitHubCalls _gitHubCalls;
+    private final boolean _warmUp;
+    private final StringBuilder _buffer = new StringBuilder(16 * 1024);
+
+    private PrometheusExposition(GitHubAuthenticatorPluginConfig config)
+    {
+        _authenticatorLabel = "authenticator=\"" + escape(config.id()) + "\"";
+        _loginMetrics = LoginMetrics.of(config);
+        _gitHubCalls = GitHubCalls.of(config);
+        _warmUp = config.isWarmUp();
+    }
+
+    public static PrometheusExposition of(GitHubAuthenticatorPluginConfig config)
+    {
+        return _expositionsByConfiguration.get(config);
+    }
+
+    public synchronized String render()
+    {
+        StringBuilder out = _buffer;
+
+        out.setLength(0);
+
+        header(out, "logins_total", "counter", "Logins that ended with the callback, by outcome");
+
+        for (Outcome outcome : Outcome.values())
+        {
+            sample(out, "logins_total", "", "outcome", outcome.getLabel())
+                    .append(_loginMetrics.getOutcomeCount(outcome)).append('\n');
+        }
+
+        header(out, "phase_duration_seconds", "histogram", "The time that the phases of logins took");
+
+        for (Phase phase : Phase.values())
+        {
+            histogram(out, "phase_duration_seconds", "phase", phase.getLabel(), _loginMetrics.getPhaseLatencies(phase));
+        }
+
+        header(out, "upstream_request_duration_seconds", "histogram",
+                "The time that requests to GitHub took, by endpoint");
+
+        for (GitHubEndpoint endpoint : GitHubEndpoint.values())
+        {
+            histogram(out, "upstream_request_duration_seconds", "endpoint", endpoint.getLabel(),
+                    _gitHubCalls.getLatencies(endpoint));
+        }
+
+        header(out, "upstream_requests_in_flight", "gauge", "Requests to GitHub that are under way");
+        sample(out, "upstream_requests_in_flight", "", null, null).append(_gitHubCalls.getInFlight()).append('\n');
+
+        boolean rateLimitHeaderWritten = false;
+
+        for (RateLimitResource resource : RateLimitResource.values())
+        {
+            long rateLimitRemaining = _gitHubCalls.getRateLimitTracker().getLastRemaining(resource);
+
+            if (rateLimitRemaining < 0)
+            {
+                continue;
+            }
+
+            if (!rateLimitHeaderWritten)
+            {
+                header(out, "rate_limit_remaining", "gauge",
+                        "The requests, or GraphQL points, left of the rate limits of GitHub, as of the last response");
+                rateLimitHeaderWritten = true;
+            }
+
+            sample(out, "rate_limit_remaining", "", "resource", resource.getLabel()).append(rateLimitRemaining)
+                    .append('\n');
+        }
+
+        if (_warmUp)
+        {
+            header(out, "warm", "gauge", "1 once the warm-up of the authenticator has finished, otherwise 0");
+            sample(out, "warm", "", null, null).append(_loginMetrics.isWarm() ? 1 : 0).append('\n');
+        }
+
+        return out.toString();
+    }
+
+    private void histogram(StringBuilder out, String name, String labelName, String labelValue,
+                           LatencyHistogram histogram)
+    {
+        long cumulativeCount = 0;
+        int histogramBucket = 0;
+
+        for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++)
+        {
+            for (; histogramBucket < HISTOGRAM_BUCKETS_BELOW[i]; histogramBucket++)
+            {
+                cumulativeCount += histogram.getBucketCount(histogramBucket);
+            }
+
+            series(out, name, "_bucket", labelName, labelValue)
+                    .append(",le=\"").append(BUCKET_LABELS[i]).append("\"} ")
+                    .append(cumulativeCount).append('\n');
+        }
+
+        // Read the count after the buckets, so that the +Inf bucket is never smaller than the others
+        long count = histogram.getCount();
+
+        series(out, name, "_bucket", labelName, labelValue)
+                .append(",le=\"+Inf\"} ")
+                .append(Math.max(count, cumulativeCount)).append('\n');
+        sample(out, name, "_sum", labelName, labelValue).append(histogram.getSumMicros() / 1e6).append('\n');
+        sample(out, name, "_count", labelName, labelValue).append(Math.max(count, cumulativeCount)).append('\n');
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help)
+    {
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Appends the name and labels of a sample, followed by the space before the value.
+     */
+    private StringBuilder sample(StringBuilder out, String name, String suffix, @Nullable String labelName,
+                                 @Nullable String labelValue)
+    {
+        return series(out, name, suffix, labelName, labelValue).append("} ");
+    }
+
+    /**
+     * Appends the name and labels of a sample, leaving the labels open for more.
+     */
+    private StringBuilder series(StringBuilder out, String name, String suffix, @Nullable String labelName,
+                                 @Nullable String labelValue)
+    {
+        out.append(PREFIX).append(name).append(suffix).append('{').append(_authenticatorLabel);
+
+        if (labelName != null)
+        {
+            out.append(',').append(labelName).append("=\"").append(labelValue).append('"');
+        }
+
+        return out;
+    }
+
+    private static String escape(String labelValue)
+    {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.metrics;
+
+import io.curity.identityserver.plugin.github.client.GitHubResponse;
+
+/**
+ * The trace of a phase of a login or of a request to GitHub, which is recorded as a Java Flight Recorder event.
+ *
+ * @see Tracing
+ */
+public interface Trace
+{
+    /**
+     * Adds the HTTP status and the size of the response of GitHub to the trace.
+     */
+    void response(GitHubResponse response);
+
+    /**
+     * Finishes the trace and records it, if it took long enough for the recording settings.
+     */
+    void finish();
+}
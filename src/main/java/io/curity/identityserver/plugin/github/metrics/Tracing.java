@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.metrics;
+
+import io.curity.identityserver.plugin.github.client.GitHubEndpoint;
+import io.curity.identityserver.plugin.github.client.GitHubResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts the traces of the phases of logins and of the requests to GitHub.
+ *
+ * <p>The traces are Java Flight Recorder events. The classes that use the JFR API are only in the plugin for Java 11
+ * and later, and are only loaded if it is available, so the plugin runs on JVMs without it. When no recording is
+ * running, or the events are disabled in it, a shared trace that does nothing is returned, so tracing doesn't
+ * allocate.
+ */
+public final class Tracing
+{
+    private static final Logger _logger = LoggerFactory.getLogger(Tracing.class);
+
+    static final Trace NONE = new Trace()
+    {
+        @Override
+        public void response(GitHubResponse response)
+        {
+        }
+
+        @Override
+        public void finish()
+        {
+        }
+    };
+
+    private static final Tracer _tracer = loadTracer();
+
+    private Tracing()
+    {
+    }
+
+    /**
+     * Makes sure that the tracer is loaded, which takes a while with Java Flight Recorder, so that the first login
+     * doesn't have to wait for it.
+     */
+    public static void load()
+    {
+        // The tracer is loaded with this class
+    }
+
+    /**
+     * Starts the trace of a phase of a login.
+     */
+    public static Trace begin(String authenticatorId, Phase phase)
+    {
+        return _tracer.begin(authenticatorId, phase);
+    }
+
+    /**
+     * Starts the trace of a request to GitHub.
+     */
+    public static Trace begin(String authenticatorId, GitHubEndpoint endpoint)
+    {
+        return _tracer.begin(authenticatorId, endpoint);
+    }
+
+    private static Tracer loadTracer()
+    {
+        try
+        {
+            Class.forName("jdk.jfr.Event", false, Tracing.class.getClassLoader());
+
+            return (Tracer) Class.forName(Tracing.class.getPackage().getName() + ".JfrTracer")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        }
+        catch (ReflectiveOperationException | LinkageError e)
+        {
+            _logger.debug("Java Flight Recorder is not available, so GitHub logins are not traced", e);
+
+            return new Tracer()
+            {
+                @Override
+                public Trace begin(String authenticatorId, Phase phase)
+                {
+                    return NONE;
+                }
+
+                @Override
+                public Trace begin(String authenticatorId, GitHubEndpoint endpoint)
+                {
+                    return NONE;
+                }
+            };
+        }
+    }
+
+    interface Tracer
+    {
+        Trace begin(String authenticatorId, Phase phase);
+
+        Trace begin(String authenticatorId, GitHubEndpoint endpoint);
+    }
+}
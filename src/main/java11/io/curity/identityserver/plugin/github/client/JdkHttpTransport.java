@@ -0,0 +1,268 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import se.curity.identityserver.sdk.Nullable;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends requests with the HTTP client of the JDK.
+ *
+ * <p>One client is shared by all logins of an authenticator instance. It keeps its connections to GitHub open
+ * between requests, sends concurrent requests to the same host over one HTTP/2 connection, and resumes the TLS
+ * sessions of earlier connections from the session cache of its SSL context when it has to connect again. The
+ * connections that it opens are counted as the SSL engines that it creates, one per connection. An engine is created
+ * before its handshake, so a resumed TLS session counts like a full handshake.
+ *
+ * <p>It is only in the classes for Java 11 and later, and is loaded by {@link GitHubTransports} when it is available.
+ * It uses the proxy settings of the JVM, since the HTTP client that is configured for the authenticator, if any,
+ * doesn't expose its proxy or its other settings.
+ */
+final class JdkHttpTransport implements GitHubTransport
+{
+    private final HttpClient _httpClient;
+    @Nullable
+    private final Duration _timeout;
+    private final TransportStatistics _statistics;
+
+    JdkHttpTransport(GitHubAuthenticatorPluginConfig config, TransportStatistics statistics)
+    {
+        _statistics = statistics;
+        _timeout = config.getLoginTimeBudget() > 0 ? Duration.ofSeconds(config.getLoginTimeBudget()) : null;
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .sslContext(new CountingSslContext(defaultSslContext(), statistics));
+        @Nullable ProxySelector proxySelector = ProxySelector.getDefault();
+
+        if (proxySelector != null)
+        {
+            builder.proxy(proxySelector);
+        }
+
+        if (_timeout != null)
+        {
+            builder.connectTimeout(_timeout);
+        }
+
+        if (GitHubRequestExecutor.usesVirtualThreads())
+        {
+            // Hand the responses over on virtual threads rather than on a pool of platform threads of the client
+            builder.executor(GitHubRequestExecutor.get());
+        }
+
+        _httpClient = builder.build();
+    }
+
+    private static SSLContext defaultSslContext()
+    {
+        try
+        {
+            return SSLContext.getDefault();
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("No default SSL context is available", e);
+        }
+    }
+
+    @Override
+    public GitHubResponse send(GitHubRequest request)
+    {
+        GitHubEndpoint endpoint = request.getEndpoint();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("https://" + endpoint.getHost() +
+                request.getPath()))
+                .header("Accept", "application/json");
+
+        if (_timeout != null)
+        {
+            builder.timeout(_timeout);
+        }
+
+        request.getHeaders().forEach(builder::header);
+
+        @Nullable Map<String, String> form = request.getForm();
+        @Nullable String json = request.getJson();
+
+        if (form != null)
+        {
+            builder.header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(encode(form)));
+        }
+        else if (json != null)
+        {
+            builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json));
+        }
+        else
+        {
+            builder.GET();
+        }
+
+        try
+        {
+            HttpResponse<byte[]> response = _httpClient.send(builder.build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+
+            _statistics.recordResponse(response.version() == HttpClient.Version.HTTP_2);
+
+            return new GitHubResponse(response.statusCode(), response.body(), response.headers()::firstValue);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("The request to the " + endpoint.getLabel() + " endpoint failed", e);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for the " +
+                    endpoint.getLabel() + " endpoint"));
+        }
+    }
+
+    private static String encode(Map<String, String> form)
+    {
+        StringBuilder encoded = new StringBuilder(256);
+
+        for (Map.Entry<String, String> parameter : form.entrySet())
+        {
+            if (encoded.length() > 0)
+            {
+                encoded.append('&');
+            }
+
+            encoded.append(URLEncoder.encode(parameter.getKey(), StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(URLEncoder.encode(parameter.getValue(), StandardCharsets.UTF_8));
+        }
+
+        return encoded.toString();
+    }
+
+    @Override
+    public void checkConfiguration()
+    {
+    }
+
+    /**
+     * An SSL context that counts the SSL engines that are created from it, and otherwise behaves like the one that
+     * it wraps, including sharing its session cache.
+     */
+    private static final class CountingSslContext extends SSLContext
+    {
+        private CountingSslContext(SSLContext delegate, TransportStatistics statistics)
+        {
+            super(new CountingSslContextSpi(delegate, statistics), delegate.getProvider(), delegate.getProtocol());
+        }
+    }
+
+    private static final class CountingSslContextSpi extends SSLContextSpi
+    {
+        private final SSLContext _delegate;
+        private final TransportStatistics _statistics;
+
+        private CountingSslContextSpi(SSLContext delegate, TransportStatistics statistics)
+        {
+            _delegate = delegate;
+            _statistics = statistics;
+        }
+
+        @Override
+        protected void engineInit(KeyManager[] keyManagers, TrustManager[] trustManagers, SecureRandom random)
+        {
+            throw new UnsupportedOperationException("The SSL context is already initialized");
+        }
+
+        @Override
+        protected SSLSocketFactory engineGetSocketFactory()
+        {
+            return _delegate.getSocketFactory();
+        }
+
+        @Override
+        protected SSLServerSocketFactory engineGetServerSocketFactory()
+        {
+            return _delegate.getServerSocketFactory();
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine()
+        {
+            _statistics.recordConnection();
+
+            return _delegate.createSSLEngine();
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine(String host, int port)
+        {
+            _statistics.recordConnection();
+
+            return _delegate.createSSLEngine(host, port);
+        }
+
+        @Override
+        protected SSLSessionContext engineGetServerSessionContext()
+        {
+            return _delegate.getServerSessionContext();
+        }
+
+        @Override
+        protected SSLSessionContext engineGetClientSessionContext()
+        {
+            return _delegate.getClientSessionContext();
+        }
+
+        @Override
+        protected SSLParameters engineGetDefaultSSLParameters()
+        {
+            return _delegate.getDefaultSSLParameters();
+        }
+
+        @Override
+        protected SSLParameters engineGetSupportedSSLParameters()
+        {
+            return _delegate.getSupportedSSLParameters();
+        }
+    }
+}
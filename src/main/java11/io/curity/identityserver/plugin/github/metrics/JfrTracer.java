@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.metrics;
+
+import io.curity.identityserver.plugin.github.client.GitHubEndpoint;
+import io.curity.identityserver.plugin.github.client.GitHubResponse;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Traces with Java Flight Recorder events. Only loaded by {@link Tracing} when JFR is available.
+ */
+final class JfrTracer implements Tracing.Tracer
+{
+    private static final EventType PHASE_EVENT_TYPE = EventType.getEventType(PhaseEvent.class);
+    private static final EventType REQUEST_EVENT_TYPE = EventType.getEventType(RequestEvent.class);
+
+    @Override
+    public Trace begin(String authenticatorId, Phase phase)
+    {
+        if (!PHASE_EVENT_TYPE.isEnabled())
+        {
+            return Tracing.NONE;
+        }
+
+        PhaseEvent event = new PhaseEvent();
+
+        event.authenticatorId = authenticatorId;
+        event.phase = phase.getLabel();
+        event.begin();
+
+        return event;
+    }
+
+    @Override
+    public Trace begin(String authenticatorId, GitHubEndpoint endpoint)
+    {
+        if (!REQUEST_EVENT_TYPE.isEnabled())
+        {
+            return Tracing.NONE;
+        }
+
+        RequestEvent event = new RequestEvent();
+
+        event.authenticatorId = authenticatorId;
+        event.endpoint = endpoint.getLabel();
+        event.begin();
+
+        return event;
+    }
+
+    @Name("io.curity.identityserver.plugin.github.Phase")
+    @Label("GitHub Login Phase")
+    @Description("A phase of a login with a GitHub authenticator")
+    @Category({"Curity", "GitHub Authenticator"})
+    @StackTrace(false)
+    static final class PhaseEvent extends Event implements Trace
+    {
+        @Label("Authenticator")
+        String authenticatorId;
+
+        @Label("Phase")
+        String phase;
+
+        @Label("HTTP Status")
+        @Description("The status of the last response of GitHub in the phase, or 0 if GitHub was not called")
+        int httpStatus;
+
+        @Label("Response Size")
+        @Description("The size of the body of the last response of GitHub in the phase, or -1 if there was none")
+        @DataAmount
+        long responseSize = -1;
+
+        @Override
+        public void response(GitHubResponse response)
+        {
+            httpStatus = response.getStatusCode();
+            responseSize = response.getBody().length;
+        }
+
+        @Override
+        public void finish()
+        {
+            commit();
+        }
+    }
+
+    @Name("io.curity.identityserver.plugin.github.Request")
+    @Label("GitHub Request")
+    @Description("A request of a GitHub authenticator to GitHub, including hedged and retried ones")
+    @Category({"Curity", "GitHub Authenticator"})
+    @StackTrace(false)
+    static final class RequestEvent extends Event implements Trace
+    {
+        @Label("Authenticator")
+        String authenticatorId;
+
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("HTTP Status")
+        @Description("The status of the response, or 0 if there was none")
+        int httpStatus;
+
+        @Label("Response Size")
+        @Description("The size of the body of the response, or -1 if there was none")
+        @DataAmount
+        long responseSize = -1;
+
+        @Override
+        public void response(GitHubResponse response)
+        {
+            httpStatus = response.getStatusCode();
+            responseSize = response.getBody().length;
+        }
+
+        @Override
+        public void finish()
+        {
+            commit();
+        }
+    }
+}
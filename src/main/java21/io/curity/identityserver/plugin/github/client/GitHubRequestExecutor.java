@@ -0,0 +1,51 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The executor of the requests to GitHub that are made in parallel with the one on the request thread.
+ *
+ * <p>Each request runs on a virtual thread of its own, which only takes up a platform thread while it is not
+ * waiting for GitHub. Logins that wait for a slow GitHub therefore cost little more than their stacks on the heap,
+ * and none has to run its requests on the request thread because all threads are busy. The number of calls to
+ * GitHub is still bounded by the concurrency limit of each authenticator instance.
+ */
+public final class GitHubRequestExecutor
+{
+    private static final Executor _executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("github-authenticator-", 1).factory());
+
+    private GitHubRequestExecutor()
+    {
+    }
+
+    public static Executor get()
+    {
+        return _executor;
+    }
+
+    /**
+     * @return true if the requests run on virtual threads, which can block without tying up a platform thread
+     */
+    static boolean usesVirtualThreads()
+    {
+        return true;
+    }
+}
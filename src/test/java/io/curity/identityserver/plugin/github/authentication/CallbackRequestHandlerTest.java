@@ -0,0 +1,236 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.authentication.StandIns.CannedResponse;
+import io.curity.identityserver.plugin.github.authentication.StandIns.GitHub;
+import io.curity.identityserver.plugin.github.authentication.StandIns.StandInException;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.ManageOrganization;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.ManageUser;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.UserInfoApi;
+import org.junit.jupiter.api.Test;
+import se.curity.identityserver.sdk.attribute.Attribute;
+import se.curity.identityserver.sdk.attribute.AuthenticationAttributes;
+import se.curity.identityserver.sdk.service.Json;
+import se.curity.identityserver.sdk.service.SessionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CallbackRequestHandlerTest
+{
+    private static final String STATE = "0b2ee3e5-0cd5-4c5c-a5c6-4a1a4c86f1f4";
+    private static final String USER_INFO = "{\"login\":\"octocat\",\"id\":583231,\"type\":\"User\"," +
+            "\"site_admin\":false,\"created_at\":\"2011-01-25T18:44:36Z\"}";
+    private static final String USER_INFO_ETAG = "W/\"4c7f4b1e3c9b3e1dd5c2c6f0e0a1b2c3\"";
+    private static final String EMAILS = "[{\"email\":\"octocat@github.com\",\"primary\":true,\"verified\":true," +
+            "\"visibility\":\"private\"}]";
+    private static final String EMAILS_ETAG = "W/\"9a0e8b3d2c1f4e5a6b7c8d9e0f1a2b3c\"";
+
+    @Test
+    void userInfoIsRevalidatedWhenSameUserLogsInAgainWithNewToken()
+    {
+        GitHub gitHub = new GitHub();
+        Map<String, Object> configuration = StandIns.services(gitHub);
+        SessionManager sessionManager = (SessionManager) configuration.get("getSessionManager");
+        CallbackRequestHandler handler = new CallbackRequestHandler(StandIns.configuration(configuration));
+
+        gitHub.answer("/user", new CannedResponse(200, USER_INFO, USER_INFO_ETAG));
+
+        AuthenticationAttributes firstLogin = login(handler, sessionManager, gitHub, "gho_first");
+        AuthenticationAttributes secondLogin = login(handler, sessionManager, gitHub, "gho_second");
+
+        List<Map<String, String>> userInfoRequests = gitHub.requests("/user");
+
+        assertEquals(2, userInfoRequests.size());
+        assertFalse(userInfoRequests.get(0).containsKey("If-None-Match"));
+        assertEquals(USER_INFO_ETAG, userInfoRequests.get(1).get("If-None-Match"));
+        assertEquals("Bearer gho_second", userInfoRequests.get(1).get("Authorization"));
+        assertEquals(firstLogin.getSubject(), secondLogin.getSubject());
+        assertEquals("octocat", secondLogin.getSubject());
+    }
+
+    @Test
+    void primaryEmailIsRevalidatedWhenSameUserLogsInAgainWithNewToken()
+    {
+        GitHub gitHub = new GitHub();
+        Map<String, Object> configuration = StandIns.services(gitHub);
+        SessionManager sessionManager = (SessionManager) configuration.get("getSessionManager");
+
+        configuration.put("getManageUser", Optional.of(StandIns.settings(ManageUser.class,
+                Collections.singletonMap("isEmailAccess", true))));
+
+        CallbackRequestHandler handler = new CallbackRequestHandler(StandIns.configuration(configuration));
+
+        gitHub.answer("/user", new CannedResponse(200, USER_INFO, USER_INFO_ETAG));
+        gitHub.answer("/user/emails", new CannedResponse(200, EMAILS, EMAILS_ETAG));
+
+        login(handler, sessionManager, gitHub, "gho_first");
+
+        AuthenticationAttributes secondLogin = login(handler, sessionManager, gitHub, "gho_second");
+        List<Map<String, String>> emailsRequests = gitHub.requests("/user/emails");
+
+        assertEquals(2, emailsRequests.size());
+        assertFalse(emailsRequests.get(0).containsKey("If-None-Match"));
+        assertEquals(EMAILS_ETAG, emailsRequests.get(1).get("If-None-Match"));
+        assertEquals("Bearer gho_second", emailsRequests.get(1).get("Authorization"));
+        assertEquals("octocat@github.com",
+                secondLogin.getSubjectAttributes().get("email").getValueOfType(String.class));
+        assertEquals(true, secondLogin.getSubjectAttributes().get("email_verified").getValue());
+    }
+
+    @Test
+    void graphQlUserInfoIsTypedAsRestAndMembersAreCheckedWithMembershipCache()
+    {
+        GitHub gitHub = new GitHub();
+        Map<String, Object> configuration = StandIns.services(gitHub);
+        SessionManager sessionManager = (SessionManager) configuration.get("getSessionManager");
+        List<Object> requestBodies = new ArrayList<>();
+
+        configuration.put("getUserInfoApi", UserInfoApi.GRAPHQL);
+        configuration.put("getManageOrganization", Optional.of(cachedMembership("acme")));
+        configuration.put("getJson", StandIns.proxy(Json.class, (method, args) ->
+        {
+            requestBodies.add(args[0]);
+
+            return "{}";
+        }));
+
+        CallbackRequestHandler handler = new CallbackRequestHandler(StandIns.configuration(configuration));
+
+        gitHub.answer("/graphql", new CannedResponse(200, "{\"data\":{\"viewer\":{\"login\":\"octocat\"," +
+                "\"id\":583231,\"type\":\"User\",\"site_admin\":false,\"followers\":{\"totalCount\":10974}," +
+                "\"created_at\":\"2011-01-25T18:44:36Z\"}}}"));
+        gitHub.answer("/orgs/acme/members/octocat", new CannedResponse(204, ""));
+
+        login(handler, sessionManager, gitHub, "gho_first");
+
+        AuthenticationAttributes secondLogin = login(handler, sessionManager, gitHub, "gho_second");
+
+        assertEquals(2, gitHub.requests("/graphql").size());
+        assertEquals(1, gitHub.requests("/orgs/acme/members/octocat").size());
+        // The query doesn't ask for the organization, whose membership is checked like with REST
+        assertEquals(1, requestBodies.size());
+        assertFalse(requestBodies.get(0).toString().contains("organization"));
+        assertTrue(requestBodies.get(0).toString().contains("followers { totalCount }"));
+        assertEquals(583231, secondLogin.getSubjectAttributes().get("id").getValue());
+        assertEquals(10974, secondLogin.getSubjectAttributes().get("followers").getValue());
+    }
+
+    @Test
+    void membershipIsCachedByUserIdOnlyWhenTurnedOn()
+    {
+        GitHub gitHub = new GitHub();
+        Map<String, Object> configuration = StandIns.services(gitHub);
+        SessionManager sessionManager = (SessionManager) configuration.get("getSessionManager");
+
+        configuration.put("getManageOrganization", Optional.of(StandIns.settings(ManageOrganization.class,
+                Collections.singletonMap("getOrganizationName", Optional.of("acme")))));
+
+        CallbackRequestHandler uncachedHandler = new CallbackRequestHandler(StandIns.configuration(configuration));
+
+        gitHub.answer("/user", new CannedResponse(200, USER_INFO));
+        gitHub.answer("/orgs/acme/members/octocat", new CannedResponse(204, ""));
+        gitHub.answer("/orgs/acme/members/hubot", new CannedResponse(204, ""));
+
+        login(uncachedHandler, sessionManager, gitHub, "gho_first");
+        login(uncachedHandler, sessionManager, gitHub, "gho_second");
+
+        assertEquals(2, gitHub.requests("/orgs/acme/members/octocat").size());
+
+        configuration.put("getManageOrganization", Optional.of(cachedMembership("acme")));
+
+        CallbackRequestHandler handler = new CallbackRequestHandler(StandIns.configuration(configuration));
+
+        login(handler, sessionManager, gitHub, "gho_third");
+        // Another user that has taken the login is looked up again
+        gitHub.answer("/user", new CannedResponse(200, "{\"login\":\"octocat\",\"id\":9919}"));
+        login(handler, sessionManager, gitHub, "gho_fourth");
+
+        assertEquals(4, gitHub.requests("/orgs/acme/members/octocat").size());
+
+        // The user that has been renamed is not
+        gitHub.answer("/user", new CannedResponse(200, "{\"login\":\"hubot\",\"id\":583231}"));
+        login(handler, sessionManager, gitHub, "gho_fifth");
+
+        assertEquals(0, gitHub.requests("/orgs/acme/members/hubot").size());
+    }
+
+    @Test
+    void userWhoseRateLimitIsExhaustedIsTurnedAwayWithoutCallingGitHub()
+    {
+        GitHub gitHub = new GitHub();
+        Map<String, Object> configuration = StandIns.services(gitHub);
+        SessionManager sessionManager = (SessionManager) configuration.get("getSessionManager");
+        Map<String, String> exhausted = new HashMap<>();
+
+        exhausted.put("X-RateLimit-Remaining", "0");
+        exhausted.put("X-RateLimit-Reset",
+                Long.toString(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 3600));
+        configuration.put("getManageUser", Optional.of(StandIns.settings(ManageUser.class,
+                Collections.singletonMap("isEmailAccess", true))));
+
+        CallbackRequestHandler handler = new CallbackRequestHandler(StandIns.configuration(configuration));
+
+        gitHub.answer("/user", new CannedResponse(200, USER_INFO, null, exhausted));
+        gitHub.answer("/user/emails", new CannedResponse(200, EMAILS));
+
+        login(handler, sessionManager, gitHub, "gho_first");
+
+        StandInException rejected = assertThrows(StandInException.class, () ->
+                login(handler, sessionManager, gitHub, "gho_second"));
+
+        assertTrue(rejected.getMessage().contains("rate limit"));
+        assertEquals(1, gitHub.requests("/user").size());
+        assertEquals(1, gitHub.requests("/user/emails").size());
+    }
+
+    private static ManageOrganization cachedMembership(String organizationName)
+    {
+        Map<String, Object> manageOrganization = new HashMap<>();
+
+        manageOrganization.put("getOrganizationName", Optional.of(organizationName));
+        manageOrganization.put("getMembershipCacheTimeToLive", 300);
+
+        return StandIns.settings(ManageOrganization.class, manageOrganization);
+    }
+
+    static AuthenticationAttributes login(CallbackRequestHandler handler, SessionManager sessionManager,
+                                          GitHub gitHub, String accessToken)
+    {
+        gitHub.answer("/login/oauth/access_token", new CannedResponse(200, "{\"access_token\":\"" + accessToken +
+                "\",\"token_type\":\"bearer\",\"scope\":\"read:user,user:email\"}"));
+        sessionManager.put(Attribute.of("state", STATE));
+
+        CallbackGetRequestModel requestModel = handler.preProcess(StandIns.callbackRequest("a5a2d2f4c0d1e6b3a7c9",
+                STATE), StandIns.response());
+
+        return handler.get(requestModel, StandIns.response())
+                .orElseThrow(IllegalStateException::new)
+                .getAttributes();
+    }
+}
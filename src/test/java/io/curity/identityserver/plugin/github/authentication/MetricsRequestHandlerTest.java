@@ -0,0 +1,62 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.authentication.StandIns.GitHub;
+import org.junit.jupiter.api.Test;
+import se.curity.identityserver.sdk.http.HttpStatus;
+import se.curity.identityserver.sdk.web.Request;
+import se.curity.identityserver.sdk.web.Response;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRequestHandlerTest
+{
+    @Test
+    void metricsAreServedAsPlainText()
+    {
+        Map<String, Object> configuration = StandIns.services(new GitHub());
+        Map<String, Object> written = new HashMap<>();
+
+        configuration.put("id", "github\"1");
+        configuration.put("isMetricsEndpointEnabled", true);
+
+        MetricsRequestHandler handler = new MetricsRequestHandler(StandIns.configuration(configuration));
+        Request request = StandIns.proxy(Request.class, (method, args) -> true);
+        Response response = StandIns.proxy(Response.class, (method, args) ->
+        {
+            written.put(method.getName() + (args.length > 1 ? " " + args[0] : ""), args[args.length - 1]);
+
+            return null;
+        });
+
+        handler.get(handler.preProcess(request, response), response);
+
+        String body = (String) written.get("setBody");
+
+        assertEquals(HttpStatus.OK, written.get("setHttpStatus"));
+        assertEquals("text/plain; version=0.0.4; charset=utf-8", written.get("addHeader Content-Type"));
+        // The quote in the ID of the authenticator is escaped for Prometheus, but not as HTML
+        assertTrue(Arrays.asList(body.split("\n")).contains(
+                "github_authenticator_logins_total{authenticator=\"github\\\"1\",outcome=\"success\"} 0"), body);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.authentication.StandIns.GitHub;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.metrics.LoginMetrics;
+import org.junit.jupiter.api.Test;
+import se.curity.identityserver.sdk.http.HttpStatus;
+import se.curity.identityserver.sdk.web.Request;
+import se.curity.identityserver.sdk.web.Response;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadinessRequestHandlerTest
+{
+    @Test
+    void notReadyUntilWarm()
+    {
+        Map<String, Object> configuration = StandIns.services(new GitHub());
+
+        configuration.put("isWarmUp", true);
+
+        GitHubAuthenticatorPluginConfig config = StandIns.configuration(configuration);
+        ReadinessRequestHandler handler = new ReadinessRequestHandler(config);
+
+        // The warm-up has only just started, and is far from running the login code enough times
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, probe(handler));
+
+        LoginMetrics.of(config).markWarm();
+
+        assertEquals(HttpStatus.OK, probe(handler));
+    }
+
+    @Test
+    void readyWithoutWarmUp()
+    {
+        ReadinessRequestHandler handler = new ReadinessRequestHandler(StandIns.configuration(
+                StandIns.services(new GitHub())));
+
+        assertEquals(HttpStatus.OK, probe(handler));
+    }
+
+    private static Object probe(ReadinessRequestHandler handler)
+    {
+        Map<String, Object> written = new HashMap<>();
+        Request request = StandIns.proxy(Request.class, (method, args) -> true);
+        Response response = StandIns.proxy(Response.class, (method, args) ->
+        {
+            written.put(method.getName(), args[args.length - 1]);
+
+            return null;
+        });
+
+        handler.get(handler.preProcess(request, response), response);
+
+        return written.get("setHttpStatus");
+    }
+}
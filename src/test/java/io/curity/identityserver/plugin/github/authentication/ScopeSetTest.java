@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.authentication.StandIns.GitHub;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.Access;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.ManageOrganization;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.ManageUser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScopeSetTest
+{
+    @Test
+    void grantedScopesAreParsedWhicheverWayTheyAreSeparated()
+    {
+        long scopes = GitHubScope.parse("read:user, user:email,,gist repo:unknown ");
+
+        assertEquals(GitHubScope.READ_USER.bit() | GitHubScope.USER_EMAIL.bit() | GitHubScope.GIST.bit(), scopes);
+        assertEquals(0, GitHubScope.parse(""));
+        assertEquals(0, GitHubScope.parse("read:users"));
+    }
+
+    @Test
+    void broadGrantedScopesCoverTheNarrowerRequestedOnes()
+    {
+        ScopeSet requested = ScopeSet.of(GitHubScope.READ_ORG.bit() | GitHubScope.PUBLIC_REPO.bit() |
+                GitHubScope.USER_EMAIL.bit() | GitHubScope.READ_GPG_KEY.bit());
+
+        assertSame(ScopeSet.EMPTY, requested.missingFrom(GitHubScope.parse("admin:org,repo,user,write:gpg_key")));
+    }
+
+    @Test
+    void narrowGrantedScopesDoNotCoverTheBroaderRequestedOnes()
+    {
+        ScopeSet requested = ScopeSet.of(GitHubScope.WRITE_ORG.bit() | GitHubScope.REPO.bit() |
+                GitHubScope.READ_USER.bit());
+        ScopeSet missing = requested.missingFrom(GitHubScope.parse("read:org,public_repo,user"));
+
+        assertEquals("write:org repo", missing.toString());
+        assertTrue(missing.contains(GitHubScope.REPO));
+        assertFalse(missing.contains(GitHubScope.READ_USER));
+    }
+
+    @Test
+    void scopesThatImplyOthersOnlyImplyTheirOwnFamily()
+    {
+        long implied = GitHubScope.withImpliedScopes(GitHubScope.ADMIN_ORG.bit());
+
+        assertEquals(GitHubScope.ADMIN_ORG.bit() | GitHubScope.WRITE_ORG.bit() | GitHubScope.READ_ORG.bit(),
+                implied);
+        assertEquals(GitHubScope.ADMIN_ORG_HOOK.bit(), GitHubScope.withImpliedScopes(GitHubScope.ADMIN_ORG_HOOK.bit()));
+    }
+
+    @Test
+    void configuredScopesAreRequestedInTheOrderOfGitHub()
+    {
+        Map<String, Object> manageUser = new HashMap<>();
+
+        manageUser.put("isEmailAccess", true);
+        manageUser.put("isFollowAccess", false);
+
+        Map<String, Object> configuration = StandIns.services(new GitHub());
+
+        configuration.put("getManageUser", Optional.of(StandIns.settings(ManageUser.class, manageUser)));
+        configuration.put("getManageOrganization", Optional.of(StandIns.settings(ManageOrganization.class,
+                Collections.singletonMap("getAccess", Access.WRITE))));
+        configuration.put("isGistsAccess", true);
+        configuration.put("getGpgKeysAccess", Access.READ_WRITE);
+
+        GitHubAuthenticatorPluginConfig config = StandIns.configuration(configuration);
+
+        assertEquals("write:org gist read:user user:email admin:gpg_key", ScopeSet.compile(config).toString());
+        assertSame(ScopeSet.requiredBy(config), ScopeSet.requiredBy(config));
+    }
+
+    @Test
+    void fullUserAccessIsRequestedAsTheBroadScope()
+    {
+        Map<String, Object> manageUser = new HashMap<>();
+
+        manageUser.put("isEmailAccess", true);
+        manageUser.put("isFollowAccess", true);
+
+        Map<String, Object> configuration = StandIns.services(new GitHub());
+
+        configuration.put("getManageUser", Optional.of(StandIns.settings(ManageUser.class, manageUser)));
+
+        assertEquals("user", ScopeSet.compile(StandIns.configuration(configuration)).toString());
+        assertTrue(ScopeSet.compile(StandIns.configuration(StandIns.services(new GitHub()))).isEmpty());
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.authentication.StandIns.CannedResponse;
+import io.curity.identityserver.plugin.github.authentication.StandIns.GitHub;
+import io.curity.identityserver.plugin.github.authentication.StandIns.StandInException;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig.StateMode;
+import org.junit.jupiter.api.Test;
+import se.curity.identityserver.sdk.attribute.Attribute;
+import se.curity.identityserver.sdk.service.SessionManager;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignedStateTest
+{
+    private static final String SESSION_ID = "5f0c2b9e-8a7d-4c3b-b1e6-0d9f8e7a6c5b";
+
+    @Test
+    void stateIsRejectedWithoutSessionId()
+    {
+        SignedState signedState = SignedState.of(signedConfiguration(new GitHub(), 10));
+        String state = signedState.create(SESSION_ID);
+
+        assertFalse(signedState.verify(state, null));
+        assertTrue(signedState.verify(state, SESSION_ID));
+    }
+
+    @Test
+    void stateIsOnlyUsedOnceAndLoginsGoOnWhenReplayCacheIsFull()
+    {
+        SignedState signedState = SignedState.of(signedConfiguration(new GitHub(), 1));
+        String firstState = signedState.create(SESSION_ID);
+        String secondState = signedState.create(SESSION_ID);
+
+        assertTrue(signedState.verify(firstState, SESSION_ID));
+        assertFalse(signedState.verify(firstState, SESSION_ID));
+        assertTrue(signedState.verify(secondState, SESSION_ID));
+        assertFalse(signedState.verify(secondState, SESSION_ID));
+    }
+
+    @Test
+    void stateIsKeptInSessionWhenSessionHasNoId()
+    {
+        GitHub gitHub = new GitHub();
+        Map<String, Object> configuration = StandIns.services(gitHub);
+        SessionManager sessionManager = StandIns.sessionManager(() -> null);
+
+        configuration.put("getStateMode", StateMode.SIGNED);
+        configuration.put("getSessionManager", sessionManager);
+
+        GitHubAuthenticatorPluginConfig config = StandIns.configuration(configuration);
+        StandInException redirect = assertThrows(StandInException.class, () ->
+                new GitHubAuthenticatorRequestHandler(config).get(null, StandIns.response()));
+        Attribute state = sessionManager.get("state");
+
+        assertEquals("redirectException", redirect.getMessage().split(" ")[0]);
+        assertNotNull(state);
+        assertTrue(redirect.getMessage().contains("state=" + state.getValueOfType(String.class)));
+
+        gitHub.answer("/user", new CannedResponse(200, "{\"login\":\"octocat\",\"id\":583231}"));
+
+        assertEquals("octocat", CallbackRequestHandlerTest.login(new CallbackRequestHandler(config), sessionManager,
+                gitHub, "gho_first").getSubject());
+    }
+
+    @Test
+    void stateKeptInSessionIsUsedOnceSessionHasIdWithoutGettingInTheWayOfLaterLogins()
+    {
+        AtomicReference<String> sessionId = new AtomicReference<>();
+        SessionManager sessionManager = StandIns.sessionManager(sessionId::get);
+        Map<String, Object> configuration = StandIns.services(new GitHub());
+
+        configuration.put("getStateMode", StateMode.SIGNED);
+        configuration.put("getSessionManager", sessionManager);
+
+        GitHubAuthenticatorPluginConfig config = StandIns.configuration(configuration);
+        GitHubAuthenticatorRequestHandler requestHandler = new GitHubAuthenticatorRequestHandler(config);
+        CallbackRequestHandler callbackHandler = new CallbackRequestHandler(config);
+        String unboundState = redirectState(requestHandler);
+
+        // The session gets an ID while the user is at GitHub
+        sessionId.set(SESSION_ID);
+        callbackHandler.validateState(unboundState);
+
+        assertNull(sessionManager.get("state"));
+        assertThrows(StandInException.class, () -> callbackHandler.validateState(unboundState));
+
+        // A login that was started without an ID and never finished leaves its state behind
+        sessionManager.put(Attribute.of("state", unboundState));
+
+        String signedState = redirectState(requestHandler);
+
+        assertTrue(SignedState.isSignedForm(signedState));
+        callbackHandler.validateState(signedState);
+    }
+
+    private static String redirectState(GitHubAuthenticatorRequestHandler requestHandler)
+    {
+        StandInException redirect = assertThrows(StandInException.class, () ->
+                requestHandler.get(null, StandIns.response()));
+        Matcher state = Pattern.compile("state=([\\w-]+)").matcher(redirect.getMessage());
+
+        assertTrue(state.find());
+
+        return state.group(1);
+    }
+
+    private static GitHubAuthenticatorPluginConfig signedConfiguration(GitHub gitHub, int replayCacheSize)
+    {
+        Map<String, Object> configuration = StandIns.services(gitHub);
+
+        configuration.put("getStateMode", StateMode.SIGNED);
+        configuration.put("getSignedStateReplayCacheSize", replayCacheSize);
+
+        return StandIns.configuration(configuration);
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.config.GitHubAuthenticatorPluginConfig;
+import se.curity.identityserver.sdk.Nullable;
+import se.curity.identityserver.sdk.attribute.Attribute;
+import se.curity.identityserver.sdk.config.annotation.DefaultBoolean;
+import se.curity.identityserver.sdk.config.annotation.DefaultEnum;
+import se.curity.identityserver.sdk.config.annotation.DefaultInteger;
+import se.curity.identityserver.sdk.http.HttpHeaders;
+import se.curity.identityserver.sdk.http.HttpRequest;
+import se.curity.identityserver.sdk.http.HttpResponse;
+import se.curity.identityserver.sdk.service.ExceptionFactory;
+import se.curity.identityserver.sdk.service.Json;
+import se.curity.identityserver.sdk.service.SessionManager;
+import se.curity.identityserver.sdk.service.WebServiceClient;
+import se.curity.identityserver.sdk.service.WebServiceClientFactory;
+import se.curity.identityserver.sdk.service.authentication.AuthenticatorInformationProvider;
+import se.curity.identityserver.sdk.web.Request;
+import se.curity.identityserver.sdk.web.Response;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * In-memory stand-ins for the SDK services that the request handlers use, and for GitHub.
+ *
+ * <p>The SDK only ships interfaces for these services, so the stand-ins are dynamic proxies that answer only what
+ * the handlers call. The benchmarks and the tests of other packages use them too.
+ */
+public final class StandIns
+{
+    static final URI AUTHENTICATION_URI = URI.create("https://login.example.com/authn/authentication/github1");
+    static final URI AUTHENTICATION_BASE_URI = URI.create("https://login.example.com/authn/authentication");
+
+    // Every configuration gets an ID of its own, since the handlers keep their state per configuration ID
+    private static final AtomicInteger _configurations = new AtomicInteger();
+
+    private StandIns()
+    {
+    }
+
+    @FunctionalInterface
+    interface Answer
+    {
+        Object answer(Method method, Object[] args);
+    }
+
+    static <T> T proxy(Class<T> type, Answer answer)
+    {
+        return type.cast(Proxy.newProxyInstance(StandIns.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) ->
+                {
+                    switch (method.getName())
+                    {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return type.getSimpleName() + " stand-in";
+                        default:
+                            return answer.answer(method, args == null ? new Object[0] : args);
+                    }
+                }));
+    }
+
+    /**
+     * Creates a configuration that answers with the given values, keyed by getter name. Getters that are not
+     * mentioned answer with their configured default, or with an empty optional or list.
+     */
+    public static GitHubAuthenticatorPluginConfig configuration(Map<String, Object> values)
+    {
+        return settings(GitHubAuthenticatorPluginConfig.class, values);
+    }
+
+    static <T> T settings(Class<T> type, Map<String, Object> values)
+    {
+        return proxy(type, (method, args) -> values.containsKey(method.getName())
+                ? values.get(method.getName())
+                : defaultValue(method));
+    }
+
+    private static Object defaultValue(Method method)
+    {
+        Class<?> returnType = method.getReturnType();
+
+        if (method.isAnnotationPresent(DefaultInteger.class))
+        {
+            return method.getAnnotation(DefaultInteger.class).value();
+        }
+        else if (method.isAnnotationPresent(DefaultBoolean.class))
+        {
+            return method.getAnnotation(DefaultBoolean.class).value();
+        }
+        else if (method.isAnnotationPresent(DefaultEnum.class))
+        {
+            return enumConstant(returnType, method.getAnnotation(DefaultEnum.class).value());
+        }
+        else if (returnType == Optional.class)
+        {
+            return Optional.empty();
+        }
+        else if (returnType == List.class)
+        {
+            return Collections.emptyList();
+        }
+
+        throw new UnsupportedOperationException(method.getName());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumConstant(Class<?> type, String name)
+    {
+        return Enum.valueOf((Class) type, name);
+    }
+
+    /**
+     * @return the services of a configuration, with a new session and GitHub answering from the given responses
+     */
+    public static Map<String, Object> services(GitHub gitHub)
+    {
+        Map<String, Object> services = new HashMap<>();
+
+        services.put("id", "github-test-" + _configurations.incrementAndGet());
+        services.put("getClientId", "test-client");
+        services.put("getClientSecret", "test-secret");
+        services.put("getJson", proxy(Json.class, (method, args) ->
+        {
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        services.put("getSessionManager", sessionManager());
+        services.put("getWebServiceClientFactory", gitHub.webServiceClientFactory());
+        services.put("getExceptionFactory", exceptionFactory());
+        services.put("getAuthenticatorInformationProvider", authenticatorInformationProvider());
+
+        return services;
+    }
+
+    static SessionManager sessionManager()
+    {
+        return sessionManager("b6a0e0a3-5d7c-4d1e-9f3a-2c1b8e7d6f54");
+    }
+
+    static SessionManager sessionManager(@Nullable String sessionId)
+    {
+        return sessionManager(() -> sessionId);
+    }
+
+    /**
+     * @param sessionId supplies the ID of the session each time it is asked for, e.g., null until it has one
+     */
+    static SessionManager sessionManager(Supplier<String> sessionId)
+    {
+        Map<String, Attribute> session = new HashMap<>();
+
+        return proxy(SessionManager.class, (method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "get":
+                    return session.get((String) args[0]);
+                case "put":
+                    Attribute attribute = (Attribute) args[0];
+                    session.put(attribute.getName(), attribute);
+                    return null;
+                case "remove":
+                    return session.remove((String) args[0]);
+                case "getSessionId":
+                    return sessionId.get();
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    static ExceptionFactory exceptionFactory()
+    {
+        return proxy(ExceptionFactory.class, (method, args) -> new StandInException(method.getName(), args));
+    }
+
+    static AuthenticatorInformationProvider authenticatorInformationProvider()
+    {
+        return proxy(AuthenticatorInformationProvider.class, (method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "getFullyQualifiedAuthenticationUri":
+                    return AUTHENTICATION_URI;
+                case "getAuthenticationBaseUri":
+                    return AUTHENTICATION_BASE_URI;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    static Request callbackRequest(String code, String state)
+    {
+        Map<String, String> parameters = new HashMap<>();
+
+        parameters.put("code", code);
+        parameters.put("state", state);
+
+        return request(parameters);
+    }
+
+    /**
+     * @return a GET request of the callback with the given query parameters
+     */
+    static Request request(Map<String, String> parameters)
+    {
+        return proxy(Request.class, (method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "isGetRequest":
+                    return true;
+                case "getParameterValueOrError":
+                    return parameters.get((String) args[0]);
+                case "getUrl":
+                    return AUTHENTICATION_URI + "/callback";
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    static Response response()
+    {
+        return proxy(Response.class, (method, args) -> null);
+    }
+
+    /**
+     * GitHub, answering every request from canned responses keyed by the path of the request, and remembering the
+     * headers of the requests unless told not to.
+     */
+    public static final class GitHub
+    {
+        private final Map<String, CannedResponse> _responsesByPath = new HashMap<>();
+        private final Map<String, List<Map<String, String>>> _requestsByPath = new HashMap<>();
+        private final boolean _remembersRequests;
+
+        public GitHub()
+        {
+            this(true);
+        }
+
+        /**
+         * @param remembersRequests false to forget the requests, e.g., when a benchmark sends millions of them
+         */
+        GitHub(boolean remembersRequests)
+        {
+            _remembersRequests = remembersRequests;
+        }
+
+        void answer(String path, CannedResponse response)
+        {
+            _responsesByPath.put(path, response);
+        }
+
+        /**
+         * @return the headers of the requests that were sent to the path, in order
+         */
+        synchronized List<Map<String, String>> requests(String path)
+        {
+            return new ArrayList<>(_requestsByPath.getOrDefault(path, Collections.emptyList()));
+        }
+
+        private HttpResponse respond(String path, Map<String, String> headers)
+        {
+            CannedResponse response = _responsesByPath.get(path);
+
+            if (response == null)
+            {
+                throw new IllegalStateException("No canned response for " + path);
+            }
+
+            if (_remembersRequests)
+            {
+                synchronized (this)
+                {
+                    _requestsByPath.computeIfAbsent(path, ignored -> new ArrayList<>()).add(headers);
+                }
+            }
+
+            return response.toHttpResponse(headers);
+        }
+
+        WebServiceClientFactory webServiceClientFactory()
+        {
+            return proxy(WebServiceClientFactory.class, (method, args) ->
+                    webServiceClient(args[0] instanceof URI ? ((URI) args[0]).getPath() : "/"));
+        }
+
+        private WebServiceClient webServiceClient(String path)
+        {
+            return proxy(WebServiceClient.class, (method, args) ->
+            {
+                switch (method.getName())
+                {
+                    case "withPath":
+                        return webServiceClient((String) args[0]);
+                    case "withHost":
+                    case "withQuery":
+                        return webServiceClient(path);
+                    case "request":
+                        return requestBuilder(path);
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        private HttpRequest.Builder requestBuilder(String path)
+        {
+            Map<String, String> headers = new HashMap<>();
+            HttpRequest request = proxy(HttpRequest.class, (method, args) ->
+            {
+                if ("response".equals(method.getName()))
+                {
+                    return respond(path, headers);
+                }
+
+                throw new UnsupportedOperationException(method.getName());
+            });
+            HttpRequest.Builder[] builder = new HttpRequest.Builder[1];
+
+            builder[0] = proxy(HttpRequest.Builder.class, (method, args) ->
+            {
+                switch (method.getName())
+                {
+                    case "get":
+                    case "post":
+                        return request;
+                    case "header":
+                        headers.put((String) args[0], (String) args[1]);
+                        return builder[0];
+                    default:
+                        // accept, contentType, body, etc. all return the builder itself
+                        return builder[0];
+                }
+            });
+
+            return builder[0];
+        }
+    }
+
+    static final class CannedResponse
+    {
+        private static final Class<?> BYTES_CONVERTER_CLASS = HttpResponse.asBytes().getClass();
+
+        private final HttpResponse _httpResponse;
+        private final HttpResponse _notModifiedResponse;
+        private final String _eTag;
+        private final int _bodySize;
+        private long _delayMillis;
+        private int _requests;
+        private long _bytes;
+
+        CannedResponse(int statusCode, String body)
+        {
+            this(statusCode, body, null);
+        }
+
+        /**
+         * Creates a response with an ETag. Requests that send the ETag in an If-None-Match header get a 304 Not
+         * Modified response instead.
+         */
+        CannedResponse(int statusCode, String body, String eTag)
+        {
+            this(statusCode, body, eTag, Collections.emptyMap());
+        }
+
+        /**
+         * Creates a response with the given headers, and with an ETag unless it is null.
+         */
+        CannedResponse(int statusCode, String body, @Nullable String eTag, Map<String, String> otherHeaders)
+        {
+            Map<String, String> headers = new HashMap<>(otherHeaders);
+
+            if (eTag != null)
+            {
+                headers.put("ETag", eTag);
+            }
+
+            _eTag = eTag;
+            _bodySize = body.getBytes(StandardCharsets.UTF_8).length;
+            _httpResponse = httpResponse(statusCode, body, headers);
+            _notModifiedResponse = httpResponse(304, "", headers);
+        }
+
+        private static HttpResponse httpResponse(int statusCode, String body, Map<String, String> headers)
+        {
+            byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+            HttpHeaders httpHeaders = proxy(HttpHeaders.class, (method, args) ->
+            {
+                if ("firstValue".equals(method.getName()))
+                {
+                    return Optional.ofNullable(headers.get((String) args[0]));
+                }
+
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+            return proxy(HttpResponse.class, (method, args) ->
+            {
+                switch (method.getName())
+                {
+                    case "statusCode":
+                        return statusCode;
+                    case "body":
+                        return args[0].getClass() == BYTES_CONVERTER_CLASS ? bodyBytes : body;
+                    case "headers":
+                        return httpHeaders;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        /**
+         * Makes every response take the given time, like a round trip to GitHub would.
+         */
+        CannedResponse withDelay(long millis)
+        {
+            _delayMillis = millis;
+
+            return this;
+        }
+
+        HttpResponse toHttpResponse(Map<String, String> requestHeaders)
+        {
+            if (_delayMillis > 0)
+            {
+                try
+                {
+                    Thread.sleep(_delayMillis);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            boolean notModified = _eTag != null && _eTag.equals(requestHeaders.get("If-None-Match"));
+
+            _requests++;
+            _bytes += notModified ? 0 : _bodySize;
+
+            return notModified ? _notModifiedResponse : _httpResponse;
+        }
+
+        /**
+         * @return the number of requests that were answered since this was last called
+         */
+        int takeRequests()
+        {
+            int requests = _requests;
+
+            _requests = 0;
+
+            return requests;
+        }
+
+        /**
+         * @return the number of bytes of the bodies that were answered since this was last called
+         */
+        long takeBytes()
+        {
+            long bytes = _bytes;
+
+            _bytes = 0;
+
+            return bytes;
+        }
+    }
+
+    /**
+     * An exception of the exception factory, which tells which factory method created it.
+     */
+    static final class StandInException extends RuntimeException
+    {
+        StandInException(String factoryMethod, Object[] args)
+        {
+            super(factoryMethod + (args.length == 0 ? "" : " " + Arrays.toString(args)), null, false,
+                    false);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StateGeneratorTest
+{
+    @Test
+    void stateIs128BitsOfBase64UrlWithoutPadding()
+    {
+        for (int i = 0; i < 1000; i++)
+        {
+            String state = StateGenerator.next();
+
+            assertTrue(state.matches("[A-Za-z0-9_-]{22}"), state);
+            assertEquals(16, Base64.getUrlDecoder().decode(state).length);
+        }
+    }
+
+    @Test
+    void statesDoNotRepeat()
+    {
+        Set<String> states = new HashSet<>();
+
+        for (int i = 0; i < 10_000; i++)
+        {
+            assertTrue(states.add(StateGenerator.next()));
+        }
+    }
+
+    @Test
+    void statesOfConcurrentLoginsDoNotRepeat()
+    {
+        Set<String> states = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 10_000).parallel().forEach(i -> assertTrue(states.add(StateGenerator.next())));
+
+        assertEquals(10_000, states.size());
+    }
+
+    @Test
+    void randomBytesDoNotRepeat()
+    {
+        byte[] first = new byte[32];
+        byte[] second = new byte[32];
+
+        StateGenerator.nextBytes(first);
+        StateGenerator.nextBytes(second);
+
+        assertFalse(Arrays.equals(new byte[32], first));
+        assertFalse(Arrays.equals(first, second));
+    }
+}
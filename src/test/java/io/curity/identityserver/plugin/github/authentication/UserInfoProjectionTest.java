@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.authentication;
+
+import io.curity.identityserver.plugin.github.descriptor.GitHubAuthenticatorPluginDescriptor;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserInfoProjectionTest
+{
+    private static final byte[] USER_INFO = ("{\"login\":\"octocat\",\"id\":583231," +
+            "\"node_id\":\"MDQ6VXNlcjU4MzIzMQ==\",\"url\":\"https://api.github.com/users/octocat\"," +
+            "\"repos_url\":\"https://api.github.com/users/octocat/repos\",\"type\":\"User\"," +
+            "\"site_admin\":false,\"name\":null,\"public_repos\":8,\"followers\":10974," +
+            "\"plan\":{\"name\":\"Medium\",\"space\":400}}").getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void defaultSubjectAttributesAreAllFieldsThatAreNotObjects()
+    {
+        UserInfoProjection projection = UserInfoProjection.compile(StandIns.configuration(new HashMap<>()));
+        Map<String, Object> attributes = projection.getSubjectAttributes(projection.getFields().read(USER_INFO));
+
+        assertEquals("https://api.github.com/users/octocat", attributes.get("url"));
+        assertEquals("https://api.github.com/users/octocat/repos", attributes.get("repos_url"));
+        assertEquals(583231, attributes.get("id"));
+        assertEquals(10974, attributes.get("followers"));
+        assertEquals(false, attributes.get("site_admin"));
+        assertFalse(attributes.containsKey("name"));
+        assertFalse(attributes.containsKey("plan"));
+    }
+
+    @Test
+    void attributesAreRenamed()
+    {
+        Map<String, Object> values = new HashMap<>();
+
+        values.put("getSubjectAttributes", Arrays.asList("login", " id = github_id "));
+        values.put("getContextAttributes", Collections.singletonList("type=user_type"));
+
+        UserInfoProjection projection = UserInfoProjection.compile(StandIns.configuration(values));
+        Map<String, Object> userInfo = projection.getFields().read(USER_INFO);
+
+        assertEquals(Arrays.asList("login", "github_id"),
+                Arrays.asList(projection.getSubjectAttributes(userInfo).keySet().toArray()));
+        assertEquals(583231, projection.getSubjectAttributes(userInfo).get("github_id"));
+        assertEquals("User", projection.getContextAttributes(userInfo).get("user_type"));
+    }
+
+    @Test
+    void invalidAttributesAreRejectedWhenConfigurationIsLoaded()
+    {
+        GitHubAuthenticatorPluginDescriptor descriptor = new GitHubAuthenticatorPluginDescriptor();
+        Map<String, Object> values = new HashMap<>();
+
+        values.put("getSubjectAttributes", Arrays.asList("login", "id="));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> descriptor.createManagedObject(StandIns.configuration(values)));
+
+        assertTrue(e.getMessage().startsWith("Subject Attributes: "), e.getMessage());
+
+        values.put("getSubjectAttributes", Arrays.asList("login", "id=github_id"));
+
+        assertTrue(descriptor.createManagedObject(StandIns.configuration(values)).isPresent());
+    }
+}
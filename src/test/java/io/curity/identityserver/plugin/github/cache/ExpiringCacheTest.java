@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExpiringCacheTest
+{
+    private static final long TIME_TO_LIVE = 60_000;
+
+    @Test
+    void newEntryIsKeptWhenCapacityIsOne()
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(1);
+
+        cache.put("a", "1", TIME_TO_LIVE);
+        // Promotes a to the protected segment
+        assertEquals("1", cache.get("a"));
+
+        cache.put("b", "2", TIME_TO_LIVE);
+
+        assertEquals("2", cache.get("b"));
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void newEntryIsKeptWhenProtectedSegmentIsFull()
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(5);
+
+        for (int i = 0; i < 5; i++)
+        {
+            cache.put("key" + i, "value" + i, TIME_TO_LIVE);
+            cache.get("key" + i);
+        }
+
+        cache.put("new", "value", TIME_TO_LIVE);
+
+        assertEquals("value", cache.get("new"));
+        assertEquals(5, cache.getSize());
+    }
+
+    @Test
+    void staleLookupAfterMissIsCountedOnce()
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+
+        assertNull(cache.get("a"));
+        assertNull(cache.getStale("a", TIME_TO_LIVE));
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void expiredEntryIsOnlyReturnedWhenStale() throws InterruptedException
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+
+        cache.put("a", "1", 1);
+        Thread.sleep(5);
+
+        assertNull(cache.get("a"));
+        assertEquals("1", cache.getStale("a", TIME_TO_LIVE));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+}
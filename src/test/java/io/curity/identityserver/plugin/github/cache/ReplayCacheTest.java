@@ -0,0 +1,67 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayCacheTest
+{
+    private static final long TIME_TO_LIVE = 60_000;
+
+    @Test
+    void keyIsOnlyUsedOnce()
+    {
+        ReplayCache<String> cache = new ReplayCache<>(10);
+
+        assertTrue(cache.use("a", TIME_TO_LIVE));
+        assertFalse(cache.use("a", TIME_TO_LIVE));
+    }
+
+    @Test
+    void keyThatExpiresSoonestIsEvictedWhenFull()
+    {
+        ReplayCache<String> cache = new ReplayCache<>(2);
+
+        assertTrue(cache.use("a", TIME_TO_LIVE));
+        assertTrue(cache.use("b", TIME_TO_LIVE / 2));
+        assertTrue(cache.use("c", TIME_TO_LIVE));
+        assertFalse(cache.use("a", TIME_TO_LIVE));
+        assertFalse(cache.use("c", TIME_TO_LIVE));
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void newKeyIsAcceptedWhenFullCacheHasExpiredKey() throws InterruptedException
+    {
+        ReplayCache<String> cache = new ReplayCache<>(2);
+
+        cache.use("a", TIME_TO_LIVE);
+        cache.use("b", 1);
+        Thread.sleep(5);
+
+        assertTrue(cache.use("c", TIME_TO_LIVE));
+        assertFalse(cache.use("a", TIME_TO_LIVE));
+        assertEquals(2, cache.getSize());
+        assertEquals(0, cache.getEvictionCount());
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest
+{
+    private static final long FAST_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    @Test
+    void opensOnceEnoughCallsFailed()
+    {
+        CircuitBreaker breaker = new CircuitBreaker(GitHubEndpoint.USER, 10, 5, 50, 100, 1000, 60_000, 2);
+
+        for (int i = 0; i < 4; i++)
+        {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.record(FAST_NANOS, true);
+        }
+
+        // Too few calls to tell yet
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.record(FAST_NANOS, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1, breaker.getRejectedCalls());
+        assertTrue(breaker.getRetryAfterMillis() > 0);
+    }
+
+    @Test
+    void opensOnceEnoughCallsWereSlow()
+    {
+        CircuitBreaker breaker = new CircuitBreaker(GitHubEndpoint.USER, 10, 4, 100, 50, 1000, 60_000, 2);
+
+        breaker.record(FAST_NANOS, false);
+        breaker.record(SLOW_NANOS, false);
+        breaker.record(FAST_NANOS, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.record(SLOW_NANOS, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void onlyTheCallsInTheWindowCount()
+    {
+        CircuitBreaker breaker = new CircuitBreaker(GitHubEndpoint.USER, 4, 4, 75, 100, 1000, 60_000, 2);
+
+        breaker.record(FAST_NANOS, true);
+
+        for (int i = 0; i < 3; i++)
+        {
+            breaker.record(FAST_NANOS, false);
+        }
+
+        // The first failure slides out of the window, so only two of the last four failed
+        breaker.record(FAST_NANOS, true);
+        breaker.record(FAST_NANOS, true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.record(FAST_NANOS, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void closesWhenAllProbesSucceed() throws InterruptedException
+    {
+        CircuitBreaker breaker = openBreaker();
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // Only as many probes as must succeed are let through
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.record(FAST_NANOS, false);
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.record(FAST_NANOS, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void opensAgainWhenProbeFailsOrIsSlow() throws InterruptedException
+    {
+        CircuitBreaker breaker = openBreaker();
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.record(FAST_NANOS, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(20);
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.record(SLOW_NANOS, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * @return a breaker that has opened for a few milliseconds, which have passed
+     */
+    private static CircuitBreaker openBreaker() throws InterruptedException
+    {
+        CircuitBreaker breaker = new CircuitBreaker(GitHubEndpoint.USER, 10, 2, 50, 100, 1000, 10, 2);
+
+        breaker.record(FAST_NANOS, true);
+        breaker.record(FAST_NANOS, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(20);
+
+        return breaker;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimiterTest
+{
+    @Test
+    void burstAfterStartIsAllowedUpToMaximum()
+    {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(3, 64);
+
+        for (int i = 0; i < 64; i++)
+        {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejectedCalls());
+    }
+
+    @Test
+    void jitteryLatenciesDoNotCutTheLimitWhenFewCallsAreUnderWay()
+    {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(3, 64);
+        int initialLimit = limiter.getLimit();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++)
+        {
+            // Mostly fast calls, with every tenth one or so taking ten times as long
+            long elapsedNanos = TimeUnit.MICROSECONDS.toNanos(random.nextInt(10) == 0 ? 50 : 5);
+
+            assertTrue(limiter.tryAcquire());
+            spin(elapsedNanos);
+            limiter.release(GitHubEndpoint.USER, elapsedNanos, false);
+        }
+
+        assertEquals(initialLimit, limiter.getLimit());
+        assertTrue(limiter.getLimit() > limiter.getMinimumLimit());
+    }
+
+    @Test
+    void limitIsNotCutBelowMinimum()
+    {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 64);
+        long elapsedNanos = TimeUnit.MICROSECONDS.toNanos(5);
+
+        assertEquals(3, limiter.getMinimumLimit());
+
+        for (int round = 0; round < 100; round++)
+        {
+            int acquired = 0;
+
+            while (limiter.tryAcquire())
+            {
+                acquired++;
+            }
+
+            spin(elapsedNanos);
+
+            for (int i = 0; i < acquired; i++)
+            {
+                limiter.release(GitHubEndpoint.USER, elapsedNanos, true);
+            }
+        }
+
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void slowCallsCutTheLimitWhenItIsUsed()
+    {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(3, 64);
+        int initialLimit = limiter.getLimit();
+        long fastNanos = TimeUnit.MICROSECONDS.toNanos(5);
+
+        for (int i = 0; i < 100; i++)
+        {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(GitHubEndpoint.USER, fastNanos, false);
+        }
+
+        int acquired = 0;
+
+        while (limiter.tryAcquire())
+        {
+            acquired++;
+        }
+
+        spin(fastNanos * 10);
+
+        for (int i = 0; i < acquired; i++)
+        {
+            limiter.release(GitHubEndpoint.USER, fastNanos * 10, false);
+        }
+
+        assertTrue(limiter.getLimit() < initialLimit);
+    }
+
+    private static void spin(long nanos)
+    {
+        long end = System.nanoTime() + nanos;
+
+        while (System.nanoTime() < end)
+        {
+            // Keeps the thread busy, as if the call took this long
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.client;
+
+import io.curity.identityserver.plugin.github.authentication.StandIns;
+import io.curity.identityserver.plugin.github.authentication.StandIns.GitHub;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GitHubCallsTest
+{
+    private static final String USER_ID = "583231";
+
+    @Test
+    void callThatTakesLongerThanMostIsHedgedAndTheFirstAnswerIsUsed() throws InterruptedException
+    {
+        GitHubCalls calls = hedgingCalls(5);
+        GitHubResponse hedgeResponse = response(200);
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch originalMayAnswer = new CountDownLatch(1);
+
+        learnLatencies(calls);
+
+        try
+        {
+            GitHubResponse response = calls.executeHedged(GitHubEndpoint.USER, USER_ID, calls.newDeadline(), () ->
+            {
+                if (invocations.incrementAndGet() == 1)
+                {
+                    await(originalMayAnswer);
+
+                    return response(200);
+                }
+
+                return hedgeResponse;
+            });
+
+            assertSame(hedgeResponse, response);
+            assertEquals(2, invocations.get());
+        }
+        finally
+        {
+            originalMayAnswer.countDown();
+        }
+    }
+
+    @Test
+    void callsAreNotHedgedUntilEnoughLatenciesAreKnown()
+    {
+        GitHubCalls calls = hedgingCalls(5);
+        AtomicInteger invocations = new AtomicInteger();
+
+        calls.executeHedged(GitHubEndpoint.USER, USER_ID, calls.newDeadline(), () ->
+        {
+            invocations.incrementAndGet();
+            sleep(50);
+
+            return response(200);
+        });
+
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void hedgesStopWhenTheBudgetIsSpent()
+    {
+        GitHubCalls calls = hedgingCalls(0);
+        AtomicInteger invocations = new AtomicInteger();
+
+        learnLatencies(calls);
+
+        // Nothing is earned, so only the hedges that were saved up are sent
+        for (int i = 0; i < 11; i++)
+        {
+            calls.executeHedged(GitHubEndpoint.USER, USER_ID, calls.newDeadline(), () ->
+            {
+                invocations.incrementAndGet();
+                sleep(40);
+
+                return response(200);
+            });
+        }
+
+        assertEquals(10 * 2 + 1, invocations.get());
+    }
+
+    @Test
+    void serverErrorsAreRetriedUntilGitHubAnswers()
+    {
+        GitHubCalls calls = retryingCalls(2, 10);
+        AtomicInteger invocations = new AtomicInteger();
+
+        GitHubResponse response = calls.executeGet(GitHubEndpoint.USER, USER_ID, calls.newDeadline(), () ->
+                response(invocations.incrementAndGet() < 3 ? 503 : 200));
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(3, invocations.get());
+    }
+
+    @Test
+    void lastServerErrorIsReturnedWhenNoRetriesAreLeft()
+    {
+        GitHubCalls calls = retryingCalls(2, 10);
+        AtomicInteger invocations = new AtomicInteger();
+
+        GitHubResponse response = calls.executeGet(GitHubEndpoint.USER, USER_ID, calls.newDeadline(), () ->
+        {
+            invocations.incrementAndGet();
+
+            return response(502);
+        });
+
+        assertEquals(502, response.getStatusCode());
+        assertEquals(3, invocations.get());
+    }
+
+    @Test
+    void connectionFailuresAreRetried()
+    {
+        GitHubCalls calls = retryingCalls(2, 10);
+        AtomicInteger invocations = new AtomicInteger();
+
+        GitHubResponse response = calls.executeGet(GitHubEndpoint.USER, USER_ID, calls.newDeadline(), () ->
+        {
+            if (invocations.incrementAndGet() == 1)
+            {
+                throw new UncheckedIOException(new ConnectException("Connection refused"));
+            }
+
+            return response(200);
+        });
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(2, invocations.get());
+    }
+
+    @Test
+    void otherFailuresAreNotRetried()
+    {
+        GitHubCalls calls = retryingCalls(2, 10);
+        AtomicInteger invocations = new AtomicInteger();
+
+        GitHubResponse response = calls.executeGet(GitHubEndpoint.USER, USER_ID, calls.newDeadline(), () ->
+        {
+            invocations.incrementAndGet();
+
+            return response(500);
+        });
+
+        assertEquals(500, response.getStatusCode());
+        assertThrows(IllegalStateException.class, () -> calls.executeGet(GitHubEndpoint.USER, USER_ID,
+                calls.newDeadline(), () ->
+                {
+                    invocations.incrementAndGet();
+
+                    throw new IllegalStateException();
+                }));
+        assertEquals(2, invocations.get());
+    }
+
+    @Test
+    void callsAreNotRetriedPastTheDeadline()
+    {
+        GitHubCalls calls = retryingCalls(2, 10);
+        AtomicInteger invocations = new AtomicInteger();
+
+        calls.executeGet(GitHubEndpoint.USER, USER_ID, System.nanoTime(), () ->
+        {
+            invocations.incrementAndGet();
+
+            return response(503);
+        });
+
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void retriesStopWhenTheBudgetIsSpent()
+    {
+        GitHubCalls calls = retryingCalls(1, 0);
+        AtomicInteger invocations = new AtomicInteger();
+
+        // Nothing is earned, so only the retries that were saved up are made
+        for (int i = 0; i < 12; i++)
+        {
+            calls.executeGet(GitHubEndpoint.USER, USER_ID, calls.newDeadline(), () ->
+            {
+                invocations.incrementAndGet();
+
+                return response(503);
+            });
+        }
+
+        assertEquals(10 * 2 + 2, invocations.get());
+    }
+
+    private static GitHubCalls retryingCalls(int maxRetries, int retryBudget)
+    {
+        Map<String, Object> configuration = StandIns.services(new GitHub());
+
+        configuration.put("getMaxRetries", maxRetries);
+        configuration.put("getRetryBudget", retryBudget);
+        configuration.put("getCircuitBreakerWindowSize", 0);
+
+        return GitHubCalls.of(StandIns.configuration(configuration));
+    }
+
+    private static GitHubCalls hedgingCalls(int hedgeBudget)
+    {
+        Map<String, Object> configuration = StandIns.services(new GitHub());
+
+        configuration.put("isHedgeUserInfoRequests", true);
+        configuration.put("getHedgeBudget", hedgeBudget);
+        configuration.put("getCircuitBreakerWindowSize", 0);
+
+        return GitHubCalls.of(StandIns.configuration(configuration));
+    }
+
+    /**
+     * Makes enough fast calls for the delay after which calls are hedged to be known, which is then the minimum.
+     */
+    private static void learnLatencies(GitHubCalls calls)
+    {
+        for (int i = 0; i < 32; i++)
+        {
+            calls.executeHedged(GitHubEndpoint.USER, USER_ID, calls.newDeadline(), () -> response(200));
+        }
+    }
+
+    private static GitHubResponse response(int statusCode)
+    {
+        return new GitHubResponse(statusCode, new byte[0], name -> Optional.empty());
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
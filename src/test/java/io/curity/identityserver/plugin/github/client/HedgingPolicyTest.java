@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgingPolicyTest
+{
+    @Test
+    void callsAreNotHedgedUntilEnoughLatenciesAreKnown()
+    {
+        HedgingPolicy policy = new HedgingPolicy(95, 5);
+
+        for (int i = 0; i < 31; i++)
+        {
+            assertEquals(-1, policy.startCall());
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        assertEquals(-1, policy.getDelayMillis());
+
+        policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertEquals(100, policy.getDelayMillis());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), policy.startCall());
+    }
+
+    @Test
+    void delayIsThePercentileOfTheRecentLatencies()
+    {
+        HedgingPolicy policy = new HedgingPolicy(90, 5);
+
+        // 10, 20, ..., 320 ms, in an order that isn't sorted
+        for (int i = 0; i < 32; i++)
+        {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(10 * (1 + (i * 7) % 32)));
+        }
+
+        // The 29th of the 32 latencies, since 90% of 32 rounds up to 29
+        assertEquals(290, policy.getDelayMillis());
+    }
+
+    @Test
+    void delayIsNeverShorterThanTheMinimum()
+    {
+        HedgingPolicy policy = new HedgingPolicy(95, 5);
+
+        for (int i = 0; i < 32; i++)
+        {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        assertEquals(20, policy.getDelayMillis());
+    }
+
+    @Test
+    void delayFollowsLatenciesOnlyOnceEnoughNewOnesAreKnown()
+    {
+        HedgingPolicy policy = new HedgingPolicy(50, 5);
+
+        for (int i = 0; i < 32; i++)
+        {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        for (int i = 0; i < 31; i++)
+        {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+
+        assertEquals(100, policy.getDelayMillis());
+
+        policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(500));
+
+        // Half of the 64 latencies are 500 ms, and the median is the last of the faster half
+        assertEquals(100, policy.getDelayMillis());
+
+        for (int i = 0; i < 32; i++)
+        {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+
+        assertEquals(500, policy.getDelayMillis());
+    }
+
+    @Test
+    void hedgesAreLimitedToThePercentageOfTheCalls()
+    {
+        HedgingPolicy policy = new HedgingPolicy(95, 10);
+
+        // A few hedges can be saved up, so that the first slow calls are hedged
+        for (int i = 0; i < 10; i++)
+        {
+            assertTrue(policy.tryHedge());
+        }
+
+        assertFalse(policy.tryHedge());
+
+        for (int i = 0; i < 9; i++)
+        {
+            policy.startCall();
+        }
+
+        assertFalse(policy.tryHedge());
+
+        policy.startCall();
+
+        assertTrue(policy.tryHedge());
+        assertFalse(policy.tryHedge());
+        assertEquals(10, policy.getCalls());
+        assertEquals(11, policy.getHedgedCalls());
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonFieldsTest
+{
+    private static final JsonFields TOKEN_FIELDS = JsonFields.of("access_token", "token_type", "scope");
+
+    @Test
+    void onlySelectedFieldsAreRead()
+    {
+        Map<String, Object> fields = TOKEN_FIELDS.read(bytes("{\"access_token\":\"gho_16C7e42F292c6912E7710c8\"," +
+                "\"expires_in\":28800,\"token_type\":\"bearer\",\"scope\":\"read:user\"}"));
+
+        assertEquals(3, fields.size());
+        assertEquals("gho_16C7e42F292c6912E7710c8", fields.get("access_token"));
+        assertEquals("bearer", fields.get("token_type"));
+        assertEquals("read:user", fields.get("scope"));
+    }
+
+    @Test
+    void nestedContainersAreSkippedUnlessSelected()
+    {
+        JsonFields fields = JsonFields.of("login")
+                .withObject("plan", JsonFields.of("name"));
+        Map<String, Object> user = fields.read(bytes("{\"emails\":[{\"login\":\"not this\"},[[]],{}]," +
+                "\"owner\":{\"login\":\"nor this\",\"nested\":{\"deeper\":[1,\"]}\",{\"}\":null}]}}," +
+                "\"login\" : \"octocat\", \"plan\": {\"name\":\"pro\",\"space\":976562499}, \"blog\":{}}"));
+
+        assertEquals("octocat", user.get("login"));
+        assertEquals(Collections.singletonMap("name", "pro"), user.get("plan"));
+        assertEquals(2, user.size());
+    }
+
+    @Test
+    void selectedFieldsThatAreContainersOrNullAreLeftOut()
+    {
+        Map<String, Object> fields = JsonFields.of("name", "bio", "plan", "email").read(bytes(
+                "{\"name\":null,\"bio\":[\"a\"],\"plan\":{\"name\":\"pro\"},\"email\":\"\"}"));
+
+        assertEquals(Collections.singletonMap("email", ""), fields);
+    }
+
+    @Test
+    void escapesAndUnicodeAreDecoded()
+    {
+        Map<String, Object> fields = JsonFields.of("name", "bio", "na\"me").read(bytes(
+                "{\"name\":\"Mona \\\"Octo\\\" Lisa\\\\\\/\\b\\f\\n\\r\\t\"," +
+                "\"bio\":\"Caf\u00e9 \\u00e9\\ud83d\\udc19 \ud83d\udc19\"," +
+                "\"na\\\"me\":true}"));
+
+        assertEquals("Mona \"Octo\" Lisa\\/\b\f\n\r\t", fields.get("name"));
+        assertEquals("Caf\u00e9 \u00e9\ud83d\udc19 \ud83d\udc19", fields.get("bio"));
+        assertEquals(true, fields.get("na\"me"));
+    }
+
+    @Test
+    void numbersAreTypedLikeTheJsonServiceTypesThem()
+    {
+        Map<String, Object> fields = JsonFields.of("a", "b", "c", "d", "e", "f", "g", "h").read(bytes(
+                "{\"a\":0,\"b\":-583231,\"c\":2147483648,\"d\":123456789012345678901234567890,\"e\":1.5," +
+                "\"f\":-2.5e-3,\"g\":1E3,\"h\":-9223372036854775808}"));
+
+        assertEquals(0, fields.get("a"));
+        assertEquals(-583231, fields.get("b"));
+        assertEquals(2147483648L, fields.get("c"));
+        assertEquals(new BigInteger("123456789012345678901234567890"), fields.get("d"));
+        assertEquals(1.5, fields.get("e"));
+        assertEquals(-2.5e-3, fields.get("f"));
+        assertEquals(1000.0, fields.get("g"));
+        assertEquals(Long.MIN_VALUE, fields.get("h"));
+    }
+
+    @Test
+    void eachObjectOfArrayIsRead()
+    {
+        JsonFields fields = JsonFields.of("email", "primary");
+        List<Map<String, Object>> emails = fields.readArray(bytes(" [ {\"email\":\"octocat@github.com\"," +
+                "\"primary\":true,\"verified\":true} , {\"email\":\"mona@github.com\",\"primary\":false} ] "));
+
+        assertEquals(2, emails.size());
+        assertEquals("octocat@github.com", emails.get(0).get("email"));
+        assertEquals(false, emails.get(1).get("primary"));
+        assertTrue(fields.readArray(bytes("[]")).isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            " ",
+            "<html><body>Bad gateway</body></html>",
+            "access_token=gho_16C7e42F292c6912E7710c8&token_type=bearer",
+            "null",
+            "[]",
+            "\"access_token\"",
+            "{",
+            "{\"access_token\"",
+            "{\"access_token\":",
+            "{\"access_token\":\"gho_16C7e42F292c6912E7710c8",
+            "{\"access_token\":\"gho_16C7e42F292c6912E7710c8\"",
+            "{\"access_token\":\"gho_16C7e42F292c6912E7710c8\",}",
+            "{\"access_token\" \"gho_16C7e42F292c6912E7710c8\"}",
+            "{access_token:\"gho_16C7e42F292c6912E7710c8\"}",
+            "{'access_token':'gho_16C7e42F292c6912E7710c8'}",
+            "{\"access_token\":\"gho_16C7e42F292c6912E7710c8\"} {}",
+            "{\"access_token\":\"gho\n16C7e42F292c6912E7710c8\"}",
+            "{\"access_token\":\"\\x41\"}",
+            "{\"access_token\":\"\\u00g1\"}",
+            "{\"access_token\":\"\\u00",
+            "{\"access_token\":tru}",
+            "{\"access_token\":nul}",
+            "{\"access_token\":undefined}",
+            "{\"expires_in\":01}",
+            "{\"expires_in\":1.}",
+            "{\"expires_in\":.5}",
+            "{\"expires_in\":-}",
+            "{\"expires_in\":1e}",
+            "{\"expires_in\":+1}",
+            "{\"expires_in\":0x10}",
+            "{\"expires_in\":NaN}",
+            "{\"expires_in\":Infinity}",
+            "{\"skipped\":[1,,2],\"access_token\":\"gho_16C7e42F292c6912E7710c8\"}",
+            "{\"skipped\":[1,2,],\"access_token\":\"gho_16C7e42F292c6912E7710c8\"}",
+            "{\"skipped\":{\"a\"},\"access_token\":\"gho_16C7e42F292c6912E7710c8\"}",
+            "{\"skipped\":{\"a\":1,},\"access_token\":\"gho_16C7e42F292c6912E7710c8\"}",
+            "{\"skipped\":[garbage],\"access_token\":\"gho_16C7e42F292c6912E7710c8\"}",
+            "{\"skipped\":[\"\\q\"],\"access_token\":\"gho_16C7e42F292c6912E7710c8\"}",
+            "{\"skipped\":[}],\"access_token\":\"gho_16C7e42F292c6912E7710c8\"}",
+            "{\"skipped\":[1}",
+            "{\"skipped\":{\"a\":[1,2}]}}"
+    })
+    void malformedJsonIsRejected(String json)
+    {
+        assertThrows(IllegalArgumentException.class, () -> TOKEN_FIELDS.read(bytes(json)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "{}", "[{}", "[{},]", "[1]", "[{}] []", "[{\"email\":}]"})
+    void malformedArrayIsRejected(String json)
+    {
+        assertThrows(IllegalArgumentException.class, () -> JsonFields.of("email").readArray(bytes(json)));
+    }
+
+    @Test
+    void deeplyNestedValueIsRejectedWithoutOverflowingTheStack()
+    {
+        StringBuilder json = new StringBuilder("{\"skipped\":");
+
+        for (int i = 0; i < 100_000; i++)
+        {
+            json.append('[');
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> TOKEN_FIELDS.read(bytes(json.toString())));
+    }
+
+    @Test
+    void truncatedResponseIsRejectedWhereverItEnds()
+    {
+        String json = "{\"access_token\":\"gho_16C7e42F292c6912E7710c8\",\"skipped\":{\"a\":[1.5e3,true,null]}," +
+                "\"scope\":\"read:user\\u002cuser:email\",\"token_type\":\"bearer\"}";
+
+        assertFalse(TOKEN_FIELDS.read(bytes(json)).isEmpty());
+
+        for (int length = 0; length < json.length(); length++)
+        {
+            String truncated = json.substring(0, length);
+
+            assertThrows(IllegalArgumentException.class, () -> TOKEN_FIELDS.read(bytes(truncated)), truncated);
+        }
+    }
+
+    private static byte[] bytes(String json)
+    {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
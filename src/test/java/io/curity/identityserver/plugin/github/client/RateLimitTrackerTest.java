@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.curity.identityserver.plugin.github.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitTrackerTest
+{
+    private static final int RESERVE = 100;
+
+    @Test
+    void budgetOfUserIsKeptAcrossLogins()
+    {
+        RateLimitTracker tracker = new RateLimitTracker(RESERVE);
+
+        // The user info of the first login, which is made with one token
+        tracker.recordBudget(GitHubEndpoint.USER, "583231", response(200, RESERVE - 1));
+
+        // The next login is made with a new token, but counts against the same limit
+        assertFalse(tracker.permitsOptionalCall(GitHubEndpoint.USER_EMAILS, "583231"));
+        assertTrue(tracker.permitsOptionalCall(GitHubEndpoint.USER_EMAILS, "1024025"));
+        assertTrue(tracker.permitsOptionalCall(GitHubEndpoint.USER_EMAILS, null));
+    }
+
+    @Test
+    void exhaustedBudgetOnlyHoldsBackCallsOfThatUser()
+    {
+        RateLimitTracker tracker = new RateLimitTracker(RESERVE);
+
+        assertTrue(tracker.record(GitHubEndpoint.USER, "583231", response(403, 0)));
+
+        assertTrue(tracker.getRetryAfterMillis(GitHubEndpoint.USER, "583231") > 0);
+        assertEquals(0, tracker.getRetryAfterMillis(GitHubEndpoint.USER, "1024025"));
+        assertEquals(0, tracker.getRetryAfterMillis(GitHubEndpoint.USER, null));
+    }
+
+    @Test
+    void graphQlBudgetIsTrackedApartFromRestBudget()
+    {
+        RateLimitTracker tracker = new RateLimitTracker(RESERVE);
+
+        assertTrue(tracker.record(GitHubEndpoint.GRAPHQL, "583231", response(403, 0)));
+        tracker.record(GitHubEndpoint.USER, "583231", response(200, 4000));
+
+        assertTrue(tracker.getRetryAfterMillis(GitHubEndpoint.GRAPHQL, "583231") > 0);
+        assertEquals(0, tracker.getRetryAfterMillis(GitHubEndpoint.USER, "583231"));
+        assertEquals(0, tracker.getLastRemaining(RateLimitResource.GRAPHQL));
+        assertEquals(4000, tracker.getLastRemaining(RateLimitResource.CORE));
+    }
+
+    private static GitHubResponse response(int statusCode, long remaining)
+    {
+        Map<String, String> headers = new HashMap<>();
+
+        headers.put("X-RateLimit-Remaining", Long.toString(remaining));
+        headers.put("X-RateLimit-Reset", Long.toString(
+                TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 3600));
+
+        return new GitHubResponse(statusCode, new byte[0], name -> Optional.ofNullable(headers.get(name)));
+    }
+}
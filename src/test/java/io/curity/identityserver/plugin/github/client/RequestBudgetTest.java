@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2026 Curity AB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package io.curity.identityserver.plugin.github.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestBudgetTest
+{
+    @Test
+    void startsWithTheSavedUpRequests()
+    {
+        RequestBudget budget = new RequestBudget(10, 3);
+
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    void extraRequestIsEarnedByThePercentageOfOrdinaryOnes()
+    {
+        RequestBudget budget = new RequestBudget(20, 1);
+
+        budget.tryWithdraw();
+
+        for (int i = 0; i < 4; i++)
+        {
+            budget.deposit();
+        }
+
+        assertFalse(budget.tryWithdraw());
+
+        budget.deposit();
+
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    void onlyTheMaximumIsSavedUp()
+    {
+        RequestBudget budget = new RequestBudget(50, 2);
+
+        for (int i = 0; i < 100; i++)
+        {
+            budget.deposit();
+        }
+
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    void nothingIsEarnedWithoutAPercentage()
+    {
+        RequestBudget budget = new RequestBudget(0, 1);
+
+        budget.tryWithdraw();
+
+        for (int i = 0; i < 100; i++)
+        {
+            budget.deposit();
+        }
+
+        assertFalse(budget.tryWithdraw());
+    }
+}